@@ -0,0 +1,75 @@
+package org.refactor.eap6.java.ejb;
+
+import org.openrewrite.internal.lang.Nullable;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.regex.Pattern;
+
+/**
+ * Matcher of fully qualified class names, compiled once from a comma separated list of names and glob patterns.
+ * In a pattern, {@code *} matches any part of a package or class name, {@code **} any sequence of packages
+ * and {@code ?} a single character, for example {@code org.fin.*.ejb.I*Remote}.
+ * Exact names are looked up in a set, all the patterns are merged into a single regular expression.
+ */
+class ClassNameMatcher {
+
+    private final boolean matchAll;
+
+    private final Set<String> names = new HashSet<>();
+
+    @Nullable
+    private final Pattern pattern;
+
+    private ClassNameMatcher(@Nullable String classesToProcess) {
+        StringJoiner globs = new StringJoiner("|");
+        if (classesToProcess != null) {
+            for (String value : classesToProcess.split(",")) {
+                String name = value.trim();
+                if (name.isEmpty()) {
+                    continue;
+                }
+                if (name.indexOf('*') >= 0 || name.indexOf('?') >= 0) {
+                    globs.add(toRegex(name));
+                } else {
+                    names.add(name);
+                }
+            }
+        }
+        this.pattern = globs.length() > 0 ? Pattern.compile(globs.toString()) : null;
+        this.matchAll = names.isEmpty() && pattern == null;
+    }
+
+    /**
+     * @param classesToProcess comma separated names and glob patterns, every class matches when null or blank
+     * @return the compiled matcher
+     */
+    static ClassNameMatcher compile(@Nullable String classesToProcess) {
+        return new ClassNameMatcher(classesToProcess);
+    }
+
+    boolean matches(String fullyQualifiedName) {
+        return matchAll || names.contains(fullyQualifiedName) || (pattern != null && pattern.matcher(fullyQualifiedName).matches());
+    }
+
+    private static String toRegex(String glob) {
+        StringBuilder regex = new StringBuilder("(?:");
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' && i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                regex.append(".*");
+                i++;
+            } else if (c == '*') {
+                regex.append("[^.]*");
+            } else if (c == '?') {
+                regex.append("[^.]");
+            } else if (Character.isLetterOrDigit(c)) {
+                regex.append(c);
+            } else {
+                regex.append('\\').append(c);
+            }
+        }
+        return regex.append(')').toString();
+    }
+}
@@ -0,0 +1,157 @@
+package org.refactor.eap6.java.ejb;
+
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.tree.JavaType;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Stable hash of everything a remote interface contract is built from: the method signatures,
+ * the {@code @ToRest} arguments and the DTO types reachable from the signatures (fields, supertypes and subtypes).
+ * A type declared in the sources is read from its summary, a type only on the classpath from its attributed type:
+ * a change in a jar changes the fingerprint too.
+ */
+class ContractFingerprint {
+
+    /**
+     * To increase when the contract generation changes, so that every contract is rebuilt
+     */
+    static final int GENERATOR_VERSION = 1;
+
+    private ContractFingerprint() {
+    }
+
+    static String of(RemoteInterfaceSummary remoteInterface, TypeIndex typeIndex, TypeHierarchy typeHierarchy, boolean schemasFromSources,
+                     boolean nativeMapSchemas) {
+        StringBuilder content = new StringBuilder("generator ").append(GENERATOR_VERSION).append('\n');
+        if (schemasFromSources) {
+            content.append("schemas from sources\n");
+        }
+        if (nativeMapSchemas) {
+            content.append("native map schemas\n");
+        }
+        Deque<String> reachableTypes = new ArrayDeque<>();
+        Map<String, JavaType.FullyQualified> attributedTypes = new HashMap<>();
+        remoteInterface.getMethods().forEach(method -> appendMethod(method, content, reachableTypes, attributedTypes));
+
+        Set<String> visited = new TreeSet<>();
+        while (!reachableTypes.isEmpty()) {
+            String fullyQualifiedName = reachableTypes.pop();
+            if (visited.add(fullyQualifiedName) && !isJdkType(fullyQualifiedName)) {
+                Optional<TypeSummary> summary = typeIndex.find(fullyQualifiedName);
+                JavaType.FullyQualified attributedType = attributedTypes.get(fullyQualifiedName);
+                if (summary.isPresent()) {
+                    if (summary.get().getSupertype() != null) {
+                        reachableTypes.add(summary.get().getSupertype());
+                    }
+                    reachableTypes.addAll(summary.get().getInterfaces());
+                    summary.get().getFields().values().forEach(fieldType -> collectTypes(fieldType, reachableTypes, attributedTypes));
+                } else if (attributedType != null) {
+                    collectTypes(attributedType.getSupertype(), reachableTypes, attributedTypes);
+                    attributedType.getInterfaces().forEach(anInterface -> collectTypes(anInterface, reachableTypes, attributedTypes));
+                    attributedType.getMembers().forEach(member -> collectTypes(member.getType(), reachableTypes, attributedTypes));
+                }
+                reachableTypes.addAll(typeHierarchy.getSubTypesOf(fullyQualifiedName));
+            }
+        }
+        for (String fullyQualifiedName : visited) {
+            content.append("type ").append(fullyQualifiedName);
+            Optional<TypeSummary> summary = typeIndex.find(fullyQualifiedName);
+            JavaType.FullyQualified attributedType = attributedTypes.get(fullyQualifiedName);
+            if (summary.isPresent()) {
+                content.append(" extends ").append(summary.get().getSupertype())
+                        .append(" implements ").append(summary.get().getInterfaces())
+                        .append(" annotated ").append(summary.get().getAnnotations())
+                        .append(" fields ").append(summary.get().getFields())
+                        .append(" properties ").append(summary.get().getPropertyNames());
+            } else if (attributedType != null && !isJdkType(fullyQualifiedName)) {
+                appendAttributedType(attributedType, content);
+            }
+            content.append('\n');
+        }
+        return sha256(content.toString());
+    }
+
+    /**
+     * The members are written in declaration order, with their type and annotations
+     */
+    private static void appendAttributedType(JavaType.FullyQualified type, StringBuilder content) {
+        content.append(" extends ").append(type.getSupertype() == null ? null : type.getSupertype().getFullyQualifiedName())
+                .append(" implements ").append(fullyQualifiedNames(type.getInterfaces()))
+                .append(" annotated ").append(fullyQualifiedNames(type.getAnnotations()))
+                .append(" members");
+        for (JavaType.Variable member : type.getMembers()) {
+            content.append(' ').append(member.getName()).append(':').append(member.getType())
+                    .append(" flags ").append(member.getFlagsBitMap())
+                    .append(" annotated ").append(fullyQualifiedNames(member.getAnnotations()));
+        }
+    }
+
+    private static List<String> fullyQualifiedNames(List<JavaType.FullyQualified> types) {
+        List<String> names = new ArrayList<>(types.size());
+        types.forEach(type -> names.add(type.getFullyQualifiedName()));
+        return names;
+    }
+
+    private static void appendMethod(RemoteInterfaceSummary.MethodSummary method, StringBuilder content, Deque<String> reachableTypes,
+                                     Map<String, JavaType.FullyQualified> attributedTypes) {
+        content.append("method ").append(method.getName()).append(" returns ");
+        if (method.getReturnTypeExpression() != null) {
+            content.append(method.getReturnTypeExpression().getType());
+            collectTypes(method.getReturnTypeExpression().getType(), reachableTypes, attributedTypes);
+        }
+        for (RemoteInterfaceSummary.ParameterSummary parameter : method.getParameters()) {
+            content.append(" param ").append(parameter.getTypeExpression().getType())
+                    .append(' ').append(parameter.getName());
+            collectTypes(parameter.getTypeExpression().getType(), reachableTypes, attributedTypes);
+        }
+        if (method.getToRestArguments() != null) {
+            content.append(" toRest");
+            method.getToRestArguments().forEach((name, value) -> content.append(' ').append(name).append('=').append(value));
+        }
+        content.append('\n');
+    }
+
+    /**
+     * @param type
+     * @param reachableTypes  the names of the types met
+     * @param attributedTypes the attributed class of each type met, for the types only on the classpath
+     */
+    private static void collectTypes(@Nullable JavaType type, Deque<String> reachableTypes, Map<String, JavaType.FullyQualified> attributedTypes) {
+        if (type instanceof JavaType.Parameterized) {
+            JavaType.FullyQualified rawType = ((JavaType.Parameterized) type).getType();
+            reachableTypes.add(rawType.getFullyQualifiedName());
+            attributedTypes.putIfAbsent(rawType.getFullyQualifiedName(), rawType);
+            ((JavaType.Parameterized) type).getTypeParameters().forEach(typeParameter -> collectTypes(typeParameter, reachableTypes, attributedTypes));
+        } else if (type instanceof JavaType.FullyQualified) {
+            reachableTypes.add(((JavaType.FullyQualified) type).getFullyQualifiedName());
+            if (!(type instanceof JavaType.Unknown)) {
+                attributedTypes.putIfAbsent(((JavaType.FullyQualified) type).getFullyQualifiedName(), (JavaType.FullyQualified) type);
+            }
+        } else if (type instanceof JavaType.Array) {
+            collectTypes(((JavaType.Array) type).getElemType(), reachableTypes, attributedTypes);
+        } else if (type instanceof JavaType.GenericTypeVariable) {
+            ((JavaType.GenericTypeVariable) type).getBounds().forEach(bound -> collectTypes(bound, reachableTypes, attributedTypes));
+        }
+    }
+
+    private static boolean isJdkType(String fullyQualifiedName) {
+        return fullyQualifiedName.startsWith("java.") || fullyQualifiedName.startsWith("javax.");
+    }
+
+    private static String sha256(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
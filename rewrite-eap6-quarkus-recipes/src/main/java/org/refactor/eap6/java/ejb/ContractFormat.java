@@ -0,0 +1,88 @@
+package org.refactor.eap6.java.ejb;
+
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.openrewrite.SourceFile;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.yaml.YamlParser;
+import org.refactor.eap6.util.FileUtil;
+import org.refactor.eap6.yaml.util.OpenApiStreamWriter;
+import org.refactor.eap6.yaml.util.ParserMicroprofile;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Output formats of the generated contracts
+ */
+enum ContractFormat {
+
+    /**
+     * SnakeYAML dump of the model, the historical layout
+     */
+    YAML(".yaml"),
+
+    /**
+     * YAML streamed from the model, without bean introspection
+     */
+    YAML_STREAM(".yaml"),
+
+    /**
+     * JSON streamed from the model, without bean introspection
+     */
+    JSON(".json");
+
+    private final String extension;
+
+    ContractFormat(String extension) {
+        this.extension = extension;
+    }
+
+    String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @param outputFormat yaml, yaml-stream or json, case insensitive
+     * @return the format, YAML when null
+     */
+    static ContractFormat of(@Nullable String outputFormat) {
+        if (outputFormat == null) {
+            return YAML;
+        }
+        return valueOf(outputFormat.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    /**
+     * @param dumper SnakeYAML dumper of the contracts written by the current thread, used by the YAML format only
+     */
+    void write(OpenAPI openAPI, Writer writer, Yaml dumper) {
+        if (this == YAML) {
+            ParserMicroprofile.toYAML(openAPI, writer, dumper);
+        } else if (this == YAML_STREAM) {
+            OpenApiStreamWriter.toYAML(openAPI, writer);
+        } else {
+            OpenApiStreamWriter.toJSON(openAPI, writer);
+        }
+    }
+
+    /**
+     * @param openAPI
+     * @param sourcePath
+     * @param dumper     SnakeYAML dumper of the contracts written by the current thread
+     * @return the contract as a yaml document, or as plain text for json
+     */
+    SourceFile toSourceFile(OpenAPI openAPI, Path sourcePath, Yaml dumper) {
+        StringWriter writer = new StringWriter();
+        write(openAPI, writer, dumper);
+        if (this == JSON) {
+            return new FileUtil().createNewFile(sourcePath.toString(), writer.toString());
+        }
+        return YamlParser.builder().build().parse(writer.toString())
+                .findFirst()
+                .map(sourceFile -> sourceFile.<SourceFile>withSourcePath(sourcePath))
+                .orElseThrow(() -> new IllegalStateException("Cannot parse the contract " + sourcePath));
+    }
+}
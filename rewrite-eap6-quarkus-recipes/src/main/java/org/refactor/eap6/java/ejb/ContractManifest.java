@@ -0,0 +1,103 @@
+package org.refactor.eap6.java.ejb;
+
+import org.openrewrite.SourceFile;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.properties.PropertiesParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Fingerprints of the contracts generated by the previous runs, kept in the target directory.
+ * One line per remote interface: {@code fullyQualifiedName=sha256}, sorted by name.
+ * The manifest is returned as a source file with the contracts, so it is written only when they are.
+ */
+class ContractManifest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ContractManifest.class);
+
+    static final String FILE_NAME = "openapi-manifest.properties";
+
+    private final Path file;
+
+    private final Map<String, String> fingerprints = new ConcurrentSkipListMap<>();
+
+    private final Map<String, String> loadedFingerprints = new TreeMap<>();
+
+    private ContractManifest(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @param file    path of the manifest
+     * @param content the manifest among the sources of the run, null to read the file written by a previous run
+     * @return the manifest, empty when it does not exist or cannot be read
+     */
+    static ContractManifest load(Path file, @Nullable String content) {
+        ContractManifest manifest = new ContractManifest(file);
+        try {
+            List<String> lines = Collections.emptyList();
+            if (content != null) {
+                lines = Arrays.asList(content.split("\\R"));
+            } else if (Files.isRegularFile(file)) {
+                lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            }
+            for (String line : lines) {
+                int separator = line.indexOf('=');
+                if (!line.startsWith("#") && separator > 0) {
+                    manifest.fingerprints.put(line.substring(0, separator).trim(), line.substring(separator + 1).trim());
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Cannot read manifest {}, every contract will be rebuilt", file, e);
+            manifest.fingerprints.clear();
+        }
+        manifest.loadedFingerprints.putAll(manifest.fingerprints);
+        return manifest;
+    }
+
+    Path getPath() {
+        return file;
+    }
+
+    boolean isUpToDate(String fullyQualifiedName, String fingerprint) {
+        return fingerprint.equals(fingerprints.get(fullyQualifiedName));
+    }
+
+    void put(String fullyQualifiedName, String fingerprint) {
+        fingerprints.put(fullyQualifiedName, fingerprint);
+    }
+
+    void remove(String fullyQualifiedName) {
+        fingerprints.remove(fullyQualifiedName);
+    }
+
+    /**
+     * @return the remote interfaces having a fingerprint, a copy
+     */
+    Set<String> fullyQualifiedNames() {
+        return new TreeSet<>(fingerprints.keySet());
+    }
+
+    /**
+     * @return whether a fingerprint was added, changed or removed since the manifest was loaded
+     */
+    boolean isChanged() {
+        return !loadedFingerprints.equals(fingerprints);
+    }
+
+    SourceFile toSourceFile() {
+        StringBuilder content = new StringBuilder("# Fingerprints of the generated OpenAPI contracts, delete this file to rebuild every contract\n");
+        fingerprints.forEach((fullyQualifiedName, fingerprint) -> content.append(fullyQualifiedName).append('=').append(fingerprint).append('\n'));
+        return new PropertiesParser().parse(content.toString())
+                .findFirst()
+                .map(sourceFile -> sourceFile.<SourceFile>withSourcePath(file))
+                .orElseThrow(() -> new IllegalStateException("Cannot parse the manifest " + file));
+    }
+}
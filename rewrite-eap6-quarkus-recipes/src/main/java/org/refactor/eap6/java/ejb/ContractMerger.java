@@ -0,0 +1,269 @@
+package org.refactor.eap6.java.ejb;
+
+import io.smallrye.openapi.api.models.ComponentsImpl;
+import io.smallrye.openapi.api.models.OpenAPIImpl;
+import io.smallrye.openapi.api.models.PathsImpl;
+import io.smallrye.openapi.api.models.info.InfoImpl;
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.Operation;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.Paths;
+import org.eclipse.microprofile.openapi.models.media.Content;
+import org.eclipse.microprofile.openapi.models.media.MediaType;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.models.tags.Tag;
+import org.openrewrite.internal.lang.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Merge the contracts of several remote interfaces into a single OpenAPI document.
+ * Components are compared by name and by the structure of their schema graph, referenced schemas included:
+ * a component already merged with the same structure is reused, a different component with an already used
+ * name is renamed with a numeric suffix. Contracts are merged in the order given, so the names are deterministic.
+ * An operation id or a path already used by another remote interface is suffixed as an overload is.
+ */
+class ContractMerger {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ContractMerger.class);
+
+    private static final String ROOT_PATH_COMPONENTS_SCHEMAS = "#/components/schemas/";
+
+    private final Map<String, String> namesByStructure = new HashMap<>();
+
+    private final Map<String, Schema> schemas = new TreeMap<>();
+
+    private final Map<String, PathItem> pathItems = new TreeMap<>();
+
+    private final Map<String, Tag> tags = new TreeMap<>();
+
+    private final OperationRegistry operationRegistry = new OperationRegistry();
+
+    /**
+     * @param name     title of the merged document
+     * @param contracts the contracts to merge, in a stable order
+     * @return the merged document
+     */
+    static OpenAPI merge(String name, Map<String, OpenAPI> contracts) {
+        ContractMerger merger = new ContractMerger();
+        contracts.forEach(merger::add);
+        return merger.toOpenAPI(name);
+    }
+
+    private void add(String fullyQualifiedName, OpenAPI openAPI) {
+        Map<String, Schema> components = openAPI.getComponents() != null && openAPI.getComponents().getSchemas() != null
+                ? openAPI.getComponents().getSchemas() : Collections.emptyMap();
+
+        //On calcule la structure de chaque composant, références résolues, avant de les renommer
+        Map<String, String> structures = new TreeMap<>();
+        components.keySet().forEach(componentName -> structure(componentName, components, structures, new HashSet<>()));
+
+        Map<String, String> renamed = new HashMap<>();
+        Map<String, Schema> added = new TreeMap<>();
+        structures.forEach((componentName, structure) -> {
+            String mergedName = namesByStructure.get(structure);
+            if (mergedName == null) {
+                mergedName = componentName;
+                for (int suffix = 2; schemas.containsKey(mergedName) || added.containsKey(mergedName); suffix++) {
+                    mergedName = componentName + suffix;
+                }
+                namesByStructure.put(structure, mergedName);
+                added.put(mergedName, components.get(componentName));
+            }
+            if (!mergedName.equals(componentName)) {
+                renamed.put(ROOT_PATH_COMPONENTS_SCHEMAS + componentName, ROOT_PATH_COMPONENTS_SCHEMAS + mergedName);
+            }
+        });
+
+        Set<Schema> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        added.values().forEach(schema -> rename(schema, renamed, visited));
+        schemas.putAll(added);
+
+        if (openAPI.getPaths() != null && openAPI.getPaths().getPathItems() != null) {
+            openAPI.getPaths().getPathItems().forEach((path, pathItem) -> {
+                String mergedPath = path;
+                boolean withPath = true;
+                for (Operation operation : pathItem.getOperations().values()) {
+                    rename(operation, renamed, visited);
+                    //Le chemin est enregistré avec la première opération, les suivantes ne suffixent que leur identifiant
+                    String operationId = operation.getOperationId() != null ? operation.getOperationId() : path;
+                    int suffix = operationRegistry.register(operationId, operationId, withPath ? path : null);
+                    if (suffix > 0) {
+                        suffix(operation, suffix);
+                        if (withPath) {
+                            mergedPath = path + suffix;
+                        }
+                    }
+                    withPath = false;
+                }
+                if (!mergedPath.equals(path)) {
+                    LOG.warn("Path {} of {} already used by another remote interface, renamed {}", path, fullyQualifiedName, mergedPath);
+                }
+                pathItems.put(mergedPath, pathItem);
+            });
+        }
+        if (openAPI.getTags() != null) {
+            openAPI.getTags().forEach(tag -> tags.putIfAbsent(tag.getName(), tag));
+        }
+    }
+
+    private static void suffix(Operation operation, int suffix) {
+        if (operation.getOperationId() != null) {
+            if (operation.getOperationId().equals(operation.getSummary())) {
+                operation.setSummary(operation.getOperationId() + suffix);
+            }
+            operation.setOperationId(operation.getOperationId() + suffix);
+        }
+        if (operation.getDescription() != null) {
+            operation.setDescription(operation.getDescription() + suffix);
+        }
+    }
+
+    private OpenAPI toOpenAPI(String name) {
+        OpenAPI openAPI = new OpenAPIImpl();
+        InfoImpl info = new InfoImpl();
+        info.setTitle(name);
+        info.setVersion("1.0.0");
+        info.setDescription(name + " OpenAPI definition");
+        Paths paths = new PathsImpl();
+        pathItems.forEach(paths::addPathItem);
+        Components components = new ComponentsImpl();
+        schemas.forEach(components::addSchema);
+        openAPI.setInfo(info);
+        openAPI.setPaths(paths);
+        openAPI.setTags(new ArrayList<>(tags.values()));
+        openAPI.setComponents(components);
+        return openAPI;
+    }
+
+    /**
+     * Canonical form of a component: its schema where every reference is replaced by the structure of the referenced component
+     */
+    private static String structure(String componentName, Map<String, Schema> components, Map<String, String> structures, Set<String> inProgress) {
+        String structure = structures.get(componentName);
+        if (structure != null) {
+            return structure;
+        }
+        if (!inProgress.add(componentName)) {
+            //Composant récursif, on s'arrête sur son nom
+            return "cycle(" + componentName + ")";
+        }
+        //Le nom fait partie de la structure : les discriminateurs désignent les sous-types par leur nom
+        StringBuilder builder = new StringBuilder(componentName).append('=');
+        appendStructure(components.get(componentName), builder, ref -> {
+            String referenced = ref.startsWith(ROOT_PATH_COMPONENTS_SCHEMAS) ? ref.substring(ROOT_PATH_COMPONENTS_SCHEMAS.length()) : ref;
+            return components.containsKey(referenced) ? structure(referenced, components, structures, inProgress) : ref;
+        });
+        inProgress.remove(componentName);
+        structure = builder.toString();
+        structures.put(componentName, structure);
+        return structure;
+    }
+
+    private static void appendStructure(@Nullable Schema schema, StringBuilder builder, Function<String, String> refStructure) {
+        if (schema == null) {
+            builder.append("null");
+            return;
+        }
+        builder.append('{');
+        if (schema.getRef() != null) {
+            builder.append("ref=").append(refStructure.apply(schema.getRef())).append(';');
+        }
+        builder.append("type=").append(schema.getType())
+                .append(";format=").append(schema.getFormat())
+                .append(";title=").append(schema.getTitle())
+                .append(";description=").append(schema.getDescription())
+                .append(";default=").append(schema.getDefaultValue())
+                .append(";example=").append(schema.getExample())
+                .append(";nullable=").append(schema.getNullable())
+                .append(";readOnly=").append(schema.getReadOnly())
+                .append(";writeOnly=").append(schema.getWriteOnly())
+                .append(";deprecated=").append(schema.getDeprecated())
+                .append(";uniqueItems=").append(schema.getUniqueItems())
+                .append(";required=").append(schema.getRequired())
+                .append(";enum=").append(schema.getEnumeration());
+        if (schema.getDiscriminator() != null) {
+            builder.append(";discriminator=").append(schema.getDiscriminator().getPropertyName());
+            if (schema.getDiscriminator().getMapping() != null) {
+                new TreeMap<>(schema.getDiscriminator().getMapping()).forEach((key, ref) -> builder.append(',').append(key).append("->").append(refStructure.apply(ref)));
+            }
+        }
+        if (schema.getProperties() != null) {
+            builder.append(";properties=");
+            new TreeMap<>(schema.getProperties()).forEach((name, property) -> {
+                builder.append(name).append(':');
+                appendStructure(property, builder, refStructure);
+            });
+        }
+        if (schema.getAdditionalPropertiesSchema() != null) {
+            builder.append(";additionalProperties=");
+            appendStructure(schema.getAdditionalPropertiesSchema(), builder, refStructure);
+        }
+        if (schema.getItems() != null) {
+            builder.append(";items=");
+            appendStructure(schema.getItems(), builder, refStructure);
+        }
+        appendStructures("allOf", schema.getAllOf(), builder, refStructure);
+        appendStructures("oneOf", schema.getOneOf(), builder, refStructure);
+        appendStructures("anyOf", schema.getAnyOf(), builder, refStructure);
+        builder.append('}');
+    }
+
+    private static void appendStructures(String name, @Nullable List<Schema> schemas, StringBuilder builder, Function<String, String> refStructure) {
+        if (schemas != null) {
+            builder.append(';').append(name).append('=');
+            schemas.forEach(schema -> appendStructure(schema, builder, refStructure));
+        }
+    }
+
+    private static void rename(Operation operation, Map<String, String> renamed, Set<Schema> visited) {
+        if (operation.getParameters() != null) {
+            operation.getParameters().forEach(parameter -> rename(parameter.getSchema(), renamed, visited));
+        }
+        if (operation.getRequestBody() != null) {
+            rename(operation.getRequestBody().getContent(), renamed, visited);
+        }
+        if (operation.getResponses() != null && operation.getResponses().getAPIResponses() != null) {
+            operation.getResponses().getAPIResponses().values().forEach(apiResponse -> rename(apiResponse.getContent(), renamed, visited));
+        }
+    }
+
+    private static void rename(@Nullable Content content, Map<String, String> renamed, Set<Schema> visited) {
+        if (content != null && content.getMediaTypes() != null) {
+            for (MediaType mediaType : content.getMediaTypes().values()) {
+                rename(mediaType.getSchema(), renamed, visited);
+            }
+        }
+    }
+
+    /**
+     * Point the references of the schema graph to the merged names. A schema is renamed only once, even when shared.
+     */
+    private static void rename(@Nullable Schema schema, Map<String, String> renamed, Set<Schema> visited) {
+        if (schema == null || renamed.isEmpty() || !visited.add(schema)) {
+            return;
+        }
+        if (schema.getRef() != null && renamed.containsKey(schema.getRef())) {
+            schema.setRef(renamed.get(schema.getRef()));
+        }
+        if (schema.getDiscriminator() != null && schema.getDiscriminator().getMapping() != null) {
+            Map<String, String> mapping = new LinkedHashMap<>();
+            schema.getDiscriminator().getMapping().forEach((key, ref) -> mapping.put(key, renamed.getOrDefault(ref, ref)));
+            schema.getDiscriminator().setMapping(mapping);
+        }
+        if (schema.getProperties() != null) {
+            schema.getProperties().values().forEach(property -> rename(property, renamed, visited));
+        }
+        rename(schema.getAdditionalPropertiesSchema(), renamed, visited);
+        rename(schema.getItems(), renamed, visited);
+        for (List<Schema> schemas : Arrays.asList(schema.getAllOf(), schema.getOneOf(), schema.getAnyOf())) {
+            if (schemas != null) {
+                schemas.forEach(child -> rename(child, renamed, visited));
+            }
+        }
+    }
+}
@@ -1,65 +1,39 @@
-
 package org.refactor.eap6.java.ejb;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import io.smallrye.openapi.api.models.*;
-import io.smallrye.openapi.api.models.info.InfoImpl;
-import io.smallrye.openapi.api.models.media.ContentImpl;
-import io.smallrye.openapi.api.models.media.DiscriminatorImpl;
-import io.smallrye.openapi.api.models.media.MediaTypeImpl;
-import io.smallrye.openapi.api.models.media.SchemaImpl;
-import io.smallrye.openapi.api.models.parameters.ParameterImpl;
-import io.smallrye.openapi.api.models.parameters.RequestBodyImpl;
-import io.smallrye.openapi.api.models.responses.APIResponseImpl;
-import io.smallrye.openapi.api.models.responses.APIResponsesImpl;
-import io.smallrye.openapi.api.models.tags.TagImpl;
-import io.swagger.v3.core.converter.ModelConverters;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
-import org.apache.http.HttpStatus;
-import org.eclipse.microprofile.openapi.models.*;
-import org.eclipse.microprofile.openapi.models.media.Content;
-import org.eclipse.microprofile.openapi.models.media.MediaType;
-import org.eclipse.microprofile.openapi.models.media.Schema;
-import org.eclipse.microprofile.openapi.models.parameters.Parameter;
-import org.eclipse.microprofile.openapi.models.parameters.RequestBody;
-import org.eclipse.microprofile.openapi.models.responses.APIResponse;
-import org.eclipse.microprofile.openapi.models.responses.APIResponses;
-import org.eclipse.microprofile.openapi.models.tags.Tag;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
 import org.openrewrite.*;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.JavaIsoVisitor;
-import org.openrewrite.java.tree.*;
-import org.refactor.eap6.java.annotation.ToRest;
-import org.refactor.eap6.util.RewriteUtils;
-import org.refactor.eap6.yaml.util.SchemaConverter;
-import org.reflections.Reflections;
-import org.reflections.scanners.SubTypesScanner;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.TypeUtils;
+import org.refactor.eap6.yaml.util.ParserMicroprofile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.yaml.snakeyaml.Yaml;
 
-import javax.ws.rs.HttpMethod;
-import java.math.BigDecimal;
-import java.time.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Consumer;
 
 /**
  * https://github.com/tjquinno/openapi-snakeyaml/blob/master/src/main/java/io/helidon/examples/openapisnakeyaml/Parser.java
  */
 @Value
 @EqualsAndHashCode(callSuper = false)
-public class EJBRemoteToRest extends ScanningRecipe<String> {
+public class EJBRemoteToRest extends ScanningRecipe<EJBRemoteToRest.Scanned> {
 
     private static final Logger LOG = LoggerFactory.getLogger(EJBRemoteToRest.class);
 
-    private static final String ROOT_PATH_COMPONENTS_SCHEMAS = "#/components/schemas/";
-
     @Option(displayName = "Target directory",
             description = "The name of the directory where the OpenAPI yaml file will be generated.",
             example = "./target/openapi")
@@ -67,11 +41,48 @@ public class EJBRemoteToRest extends ScanningRecipe<String> {
     String targetDirectory;
 
     @Option(displayName = "Fully qualified class to process",
-            description = "The name of the class to create yaml openApi contract.",
-            example = "org.svc.ejb.IMyEjbRemoteInterface")
+            description = "The names of the classes to create yaml openApi contract, comma separated. Glob patterns are accepted: `*` matches a part of a package or class name, `**` any sequence of packages.",
+            example = "org.svc.ejb.IMyEjbRemoteInterface, org.fin.*.ejb.I*Remote")
     @Nullable
     String fullyQualifiedClassToProcess;
 
+    @Option(displayName = "Incremental",
+            description = "Only rebuild the contracts whose remote interface signatures, @ToRest arguments or reachable DTO types changed since the last run, according to the manifest kept in the target directory. Not applied to a merged contract.",
+            required = false)
+    @Nullable
+    Boolean incremental;
+
+    @Option(displayName = "Merged contract name",
+            description = "When set, a single OpenAPI yaml file with this name gathers the contracts of every remote interface, shared components appearing only once.",
+            example = "my-application",
+            required = false)
+    @Nullable
+    String mergedContractName;
+
+    @Option(displayName = "Output format",
+            description = "Format of the generated contracts: `yaml` (default), `yaml-stream` or `json`. The last two are streamed from the OpenAPI model instead of being dumped by SnakeYAML.",
+            valid = {"yaml", "yaml-stream", "json"},
+            example = "json",
+            required = false)
+    @Nullable
+    String outputFormat;
+
+    @Option(displayName = "Schemas from sources",
+            description = "Build the DTO schemas from the types attributed in the sources instead of loading the DTO classes, so the application jars do not have to be added to the dependencies of the rewrite-maven-plugin. "
+                    + "The properties are read from the fields: `@JsonIgnore` is honored everywhere, `@JsonProperty` names only for the DTOs declared in the sources.",
+            required = false)
+    @Nullable
+    Boolean schemasFromSources;
+
+    @Option(displayName = "Native map schemas",
+            description = "Describe a `Map` keyed by strings, numbers, booleans, dates or enums as a JSON object with `additionalProperties`, and any other `Map` as an array of key/value entries, "
+                    + "instead of a wrapper component holding the list of the keys and the list of the values. A `Map` parameter is then sent in the request body.",
+            required = false)
+    @Nullable
+    Boolean nativeMapSchemas;
+
+    transient EndpointInventory endpoints = new EndpointInventory(this);
+
     @Override
     public String getDisplayName() {
         return "Transform EJB Remote to REST Endpoint";
@@ -87,778 +98,283 @@ public class EJBRemoteToRest extends ScanningRecipe<String> {
         return Duration.ofMinutes(10);
     }
 
-    List<J.CompilationUnit> compilationUnits = new ArrayList<>();
+    public EJBRemoteToRest(String targetDirectory, String fullyQualifiedClassToProcess) {
+        this(targetDirectory, fullyQualifiedClassToProcess, null, null, null, null, null);
+    }
 
-    public EJBRemoteToRest(@JsonProperty("targetDirectory") String targetDirectory, @JsonProperty("fullyQualifiedClassToProcess") String fullyQualifiedClassToProcess) {
+    @JsonCreator
+    public EJBRemoteToRest(@JsonProperty("targetDirectory") String targetDirectory, @JsonProperty("fullyQualifiedClassToProcess") String fullyQualifiedClassToProcess,
+                           @JsonProperty("incremental") Boolean incremental, @JsonProperty("mergedContractName") String mergedContractName,
+                           @JsonProperty("outputFormat") String outputFormat, @JsonProperty("schemasFromSources") Boolean schemasFromSources,
+                           @JsonProperty("nativeMapSchemas") Boolean nativeMapSchemas) {
         this.targetDirectory = targetDirectory;
         this.fullyQualifiedClassToProcess = fullyQualifiedClassToProcess;
+        this.incremental = incremental;
+        this.mergedContractName = mergedContractName;
+        this.outputFormat = outputFormat;
+        this.schemasFromSources = schemasFromSources;
+        this.nativeMapSchemas = nativeMapSchemas;
     }
 
-    @Override
-    public String getInitialValue(ExecutionContext ctx) {
-        return targetDirectory != null ? targetDirectory : "./target";
-    }
+    static class Scanned {
 
-    public TreeVisitor<?, ExecutionContext> getScanner(String tDirectory) {
+        private final String targetDirectory;
 
-        String classToProcess = fullyQualifiedClassToProcess;
+        private final boolean incremental;
 
-        return new JavaIsoVisitor<ExecutionContext>() {
+        @Nullable
+        private final String mergedContractName;
 
-            private final List<EndpointInfo> endpointInfos = new ArrayList<>();
+        private final ContractFormat format;
 
-            @Override
-            public @org.jspecify.annotations.Nullable J visit(@org.jspecify.annotations.Nullable Tree tree, ExecutionContext executionContext) {
-                if (tree instanceof SourceFile && ((SourceFile) tree).getSourcePath().getFileName().toString().contains(".java")) {
-                    compilationUnits.add((J.CompilationUnit) tree);
-                }
-                return super.visit(tree, executionContext);
-            }
+        private final boolean schemasFromSources;
 
-            @Override
-            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext executionContext) {
-                J.ClassDeclaration classDeclaration = super.visitClassDeclaration(classDecl, executionContext);
+        private final boolean nativeMapSchemas;
 
-                AppInfo appInfo = new AppInfo(classDecl.getSimpleName(), classDecl.getSimpleName() + " OpenAPI definition", "1.0.0");
-                if (FindRemoteInterfaceVisitor.find(getCursor().getParentTreeCursor().getValue(), classDecl).get()) {
+        private final TypeIndex typeIndex = new TypeIndex();
 
-                    if (classToProcess != null) {
-                        String classQualified = TypeUtils.asFullyQualified(classDecl.getType()).getFullyQualifiedName();
-                        if (!classToProcess.equals(classQualified)) {
-                            return classDeclaration;
-                        }
-                    }
+        private final TypeHierarchy typeHierarchy = new TypeHierarchy();
 
-                    List<Statement> statements = classDecl.getBody().getStatements();
-                    for (Statement statement : statements) {
-                        if (statement instanceof J.MethodDeclaration) {
-                            //On build les endpoints pour toutes les méthodes remotes
-                            buildEndpoint((J.MethodDeclaration) statement, classDeclaration.getSimpleName());
-                        }
-                    }
-                    if (!endpointInfos.isEmpty()) {
-                        OpenAPI openAPI = buildYamlContract(appInfo);
-                        executionContext.putMessage(classDeclaration.getSimpleName(), openAPI);
-                    }
-                }
-                return classDeclaration;
-            }
+        private final SchemaCache schemaCache = new SchemaCache();
 
-            /**
-             * On construit tous les Endpoints
-             * @param methodDeclaration
-             * @param classname
-             */
-            private void buildEndpoint(J.MethodDeclaration methodDeclaration, String classname) {
-                EndpointInfo endpointInfo = new EndpointInfo();
-                endpointInfo.methodName = methodDeclaration.getSimpleName();
-                endpointInfo.operationId = toDashCase(methodDeclaration.getSimpleName());
-                TypeTree returnTypeExpression = methodDeclaration.getReturnTypeExpression();
-
-                Schema schemaResponse = buildSchema(returnTypeExpression, endpointInfo.additionalSchemaComponent, 0, null);
-                ResponseItemComponent responseItemComponent = new ResponseItemComponent();
-                responseItemComponent.componentTypeList.add(schemaResponse);
-                endpointInfo.responseItemComponent = responseItemComponent;
-
-                //On recherche l'annotation @ToRest pour orienter la construction du REST point
-                Optional<J.Annotation> toRest = methodDeclaration.getLeadingAnnotations().stream().filter(annotation -> annotation.getSimpleName().equals("ToRest")).findFirst();
-                if (toRest.isPresent()) {
-                    J.Annotation annotation = toRest.get();
-                    List<Expression> arguments = annotation.getArguments();
-                    buildEndpointInfo(arguments, endpointInfo);
-                } else {
-                    LOG.warn("annotation @ToRest not found for method {}", methodDeclaration.getSimpleName());
-                    endpointInfo.path = "/" + classname + "/" + methodDeclaration.getSimpleName();
-                    endpointInfo.action = ToRest.ActionType.POST.name();
-                    endpointInfo.tag = classname;
-                    endpointInfo.description = endpointInfo.operationId;
-                }
+        private final Map<String, RemoteInterfaceSummary> remoteInterfaces = new TreeMap<>();
 
-                List<Statement> parameters = methodDeclaration.getParameters();
-                parameters.forEach(statement -> {
-                    if (statement instanceof J.Empty) {
-                        return;
-                    }
-                    J.VariableDeclarations variableDeclarations = (J.VariableDeclarations) statement;
-                    TypeTree typeExpression = variableDeclarations.getTypeExpression();
-                    ComponentParam componentParam = new ComponentParam();
-                    Schema schemaRequest = buildSchema(typeExpression, endpointInfo.additionalSchemaComponent, 0, null);
-                    String name = variableDeclarations.getVariables().get(0).getVariableType().getName();
-                    componentParam.name = name;
-                    componentParam.schema = schemaRequest;
-                    JavaType.FullyQualified fullyQualified = TypeUtils.asFullyQualified(typeExpression.getType());
-                    if (fullyQualified != null) {
-                        componentParam.fullyQualified = fullyQualified.getFullyQualifiedName();
-                    }
-                    Optional<String> className = getClassName(componentParam.fullyQualified);
-                    if (componentParam.schema.getRef() != null || (className.isPresent() && isCollection(className.get()))) {
-                        endpointInfo.requestBodyParametersMap.put(name, componentParam);
-                    } else {
-                        endpointInfo.requestParametersMap.put(name, componentParam);
-                    }
-                });
-                //On ne peut pas avoir deux fois le meme path
-                List<EndpointInfo> methodNameAlreadyExistList = endpointInfos.stream().filter(endpointInf -> endpointInf.methodName.equalsIgnoreCase(endpointInfo.methodName)).collect(Collectors.toList());
-                if (!methodNameAlreadyExistList.isEmpty()) {
-                    endpointInfo.methodName = endpointInfo.methodName + methodNameAlreadyExistList.size();
-                    endpointInfo.operationId = endpointInfo.operationId + methodNameAlreadyExistList.size();
-                    endpointInfo.path = endpointInfo.path + methodNameAlreadyExistList.size();
-                    endpointInfo.description = endpointInfo.description + methodNameAlreadyExistList.size();
-                }
-                endpointInfos.add(endpointInfo);
-            }
+        /**
+         * Paths of all the source files of the run, to update a contract or the manifest already among them instead of generating it
+         */
+        private final Set<Path> existingSourcePaths = new HashSet<>();
 
-            /**
-             *
-             * @param parameterType
-             * @param additionalSchemaComponent
-             * @return
-             */
-            private Schema buildSchema(TypeTree parameterType, Map<String, Schema> additionalSchemaComponent, int depth, InheritanceInfo inheritInfo) {
-                Schema schema = new SchemaImpl();
-                depth++;
-                if (parameterType instanceof J.ParameterizedType) {
-                    List<Expression> typeParameters = ((J.ParameterizedType) parameterType).getTypeParameters();
-                    String simpleName = ((J.Identifier) (((J.ParameterizedType) parameterType).getClazz())).getSimpleName();
-                    if (isCollection(simpleName)) {
-                        schema.setType(Schema.SchemaType.ARRAY);
-                        if (isUniqueCollection(simpleName)) {
-                            schema.uniqueItems(true);
-                        }
-                        Expression last = typeParameters.get(0);
-                        schema.setItems(buildSchema((TypeTree) last, additionalSchemaComponent, depth, inheritInfo));
-                    } else if (isMap(simpleName)) {
-                        Expression first = typeParameters.get(0);
-                        Expression last = typeParameters.get(1);
-                        String fullyQualifiedType = first.getType().toString();
-                        if (fullyQualifiedType.equals(String.class.getName())) {
-                            schema.setType(Schema.SchemaType.OBJECT);
-                            schema.setAdditionalPropertiesSchema(buildSchema((TypeTree) last, additionalSchemaComponent, depth, inheritInfo));
-                        } else {
-                            String objectName = "CompositeMapResponse" + depth;
-                            schema.setRef(ROOT_PATH_COMPONENTS_SCHEMAS + objectName);
-                            Schema schemaMapComposite = new SchemaImpl();
-                            schemaMapComposite.setDescription("wrapper for Map " + typeParameters);
-                            Schema schemaFirst = buildSchema((TypeTree) first, additionalSchemaComponent, depth, inheritInfo);
-                            Schema schemaFirstList = new SchemaImpl();
-                            schemaFirstList.setType(Schema.SchemaType.ARRAY);
-                            schemaFirstList.setItems(schemaFirst);
-
-                            Schema schemaLast = buildSchema((TypeTree) last, additionalSchemaComponent, depth, inheritInfo);
-                            Schema schemaLastList = new SchemaImpl();
-                            schemaLastList.setType(Schema.SchemaType.ARRAY);
-                            schemaLastList.setItems(schemaLast);
-
-                            schemaMapComposite.addProperty("first", schemaFirstList);
-                            schemaMapComposite.addProperty("last", schemaLastList);
-                            additionalSchemaComponent.put(objectName, schemaMapComposite);
-                        }
-                    }
-                } else {
-                    Map<String, Schema> schemaMap = getComponentSchemas(parameterType);
-                    String key;
-                    if (parameterType instanceof J.Primitive) {
-                        key = ((J.Primitive) parameterType).getType().toString();
-                    } else {
-                        key = ((J.Identifier) parameterType).getSimpleName();
-                    }
-                    if (schemaMap.size() == 1) {
-                        Schema schemaObject = schemaMap.get(key);
-                        if (schemaObject.getType().equals(Schema.SchemaType.OBJECT)) {
-                            String fullyQualifiedObjectname = schemaObject.getDescription();
-                            InheritanceInfo inheritanceInfo = getSubtypes(fullyQualifiedObjectname);
-                            if (inheritanceInfo.subtypes.isEmpty()) {
-                                schema.setRef(ROOT_PATH_COMPONENTS_SCHEMAS + key);
-                                schemaMap.forEach((key1, value) -> {
-                                    if (inheritInfo != null && !inheritInfo.isInterface) {
-                                        Schema globalSchema = new SchemaImpl();
-                                        Schema ref = new SchemaImpl();
-                                        ref.setRef(ROOT_PATH_COMPONENTS_SCHEMAS + getClassName(inheritInfo.fullyQualifiedSuperClass).get());
-                                        globalSchema.addAllOf(ref);
-                                        globalSchema.addAllOf(value);
-                                        additionalSchemaComponent.put(key1, globalSchema);
-                                    } else {
-                                        additionalSchemaComponent.put(key1, value);
-                                    }
-                                });
-                            } else {
-                                if (!inheritanceInfo.isInterface) {
-                                    DiscriminatorImpl discriminatorForPath = new DiscriminatorImpl();
-                                    String discriminatorPropertyName = "type_" + key.toLowerCase();
-                                    discriminatorForPath.propertyName(discriminatorPropertyName);
-                                    inheritanceInfo.subtypes.forEach(subtype -> {
-                                        addSubtypeToAdditionnalSchemaConmponent(subtype.getName(), additionalSchemaComponent, inheritanceInfo);
-                                    });
-                                    schema.setRef(ROOT_PATH_COMPONENTS_SCHEMAS + key);
-
-                                    List<String> required = new ArrayList<>();
-                                    required.add(discriminatorPropertyName);
-                                    schemaObject.setRequired(required);
-                                    DiscriminatorImpl discriminatorObject = new DiscriminatorImpl();
-                                    discriminatorObject.propertyName(discriminatorPropertyName);
-                                    schemaObject.setDiscriminator(discriminatorObject);
-                                    Map<String, Schema> properties = new HashMap<>(schemaObject.getProperties());
-                                    properties.put(discriminatorPropertyName, new SchemaImpl().type(Schema.SchemaType.STRING));
-                                    schemaObject.setProperties(properties);
-                                    additionalSchemaComponent.put(key, schemaObject);
-                                } else {
-                                    Schema schemaOneOf = new SchemaImpl();
-                                    inheritanceInfo.subtypes.forEach(subtype -> {
-                                        Schema schemaRef = new SchemaImpl();
-                                        schemaRef.setRef(ROOT_PATH_COMPONENTS_SCHEMAS + getClassName(subtype.getName()).get());
-                                        schemaOneOf.addOneOf(schemaRef);
-                                        addSubtypeToAdditionnalSchemaConmponent(subtype.getName(), additionalSchemaComponent, inheritanceInfo);
-                                    });
-                                    additionalSchemaComponent.put(key, schemaOneOf);
-                                    schema.setRef(ROOT_PATH_COMPONENTS_SCHEMAS + key);
-                                }
-                            }
-                        } else {
-                            schema.setType(schemaObject.getType());
-                            if (schemaObject.getFormat() != null) {
-                                schema.setFormat(schemaObject.getFormat());
-                            }
-                        }
-                    } else {
-                        schema.setRef(ROOT_PATH_COMPONENTS_SCHEMAS + key);
-                        schemaMap.forEach((key1, value) -> additionalSchemaComponent.put(key, value));
-                    }
-                }
-                return schema;
-            }
+        private final Map<Path, SourceFile> updatedSources = new HashMap<>();
 
-            private void addSubtypeToAdditionnalSchemaConmponent(String fullyQualifiedObjectname, Map<String, Schema> additionalSchemaComponent, InheritanceInfo inheritanceInfo) {
-                Set<NameTree> typeTrees = new HashSet<>();
-                for (J.CompilationUnit compilationUnit : compilationUnits) {
-                    typeTrees = compilationUnit.findType(fullyQualifiedObjectname);
-                    if (!typeTrees.isEmpty()) {
-                        break;
-                    }
-                }
-                NameTree nameTree = typeTrees.iterator().next();
-                buildSchema((TypeTree) nameTree, additionalSchemaComponent, 0, inheritanceInfo);
-            }
-
-            /**
-             *
-             * @param fullyQualifiedObjectname
-             * @return
-             */
-            private InheritanceInfo getSubtypes(String fullyQualifiedObjectname) {
-                InheritanceInfo inheritanceInfo = new InheritanceInfo();
-                if (fullyQualifiedObjectname != null) {
-                    try {
-                        Class<?> aClass = getClass().getClassLoader().loadClass(fullyQualifiedObjectname);
-                        inheritanceInfo.isInterface = aClass.isInterface();
-                        inheritanceInfo.fullyQualifiedSuperClass = fullyQualifiedObjectname;
-                        String pack = aClass.getPackage().getName();
-                        //TODO ici il faudrait faire une boucle pour rechercher egalement dans les sous packages
-                        Reflections reflections = new Reflections(pack, new SubTypesScanner(false));
-                        inheritanceInfo.subtypes = reflections.getSubTypesOf((Class<Object>) aClass);
-                    } catch (ClassNotFoundException e) {
-                        LOG.error("Cannot load class {}", fullyQualifiedObjectname);
-                    }
-                }
-                return inheritanceInfo;
-            }
+        private final Path manifestPath;
 
-            /**
-             *
-             * @param parameterType
-             * @return
-             */
-            private Map<String, Schema> getComponentSchemas(TypeTree parameterType) {
-                ComponentParam componentParam = new ComponentParam();
-                componentParam.fullyQualified = parameterType.getType().toString();
-                if (parameterType instanceof J.Identifier) {
-                    componentParam.name = ((J.Identifier) parameterType).getSimpleName();
-                } else if (parameterType instanceof J.Primitive) {
-                    componentParam.name = ((J.Primitive) parameterType).toString();
-                }
-                return buildSchemaForObject(componentParam);
-            }
+        /**
+         * The manifest when it is among the sources of the run
+         */
+        @Nullable
+        private String manifestContent;
 
-            /**
-             * On construit le contrat OpenAPI
-             * @param appInfo
-             * @return
-             */
-            private OpenAPI buildYamlContract(AppInfo appInfo) {
-                OpenAPI openAPI = new OpenAPIImpl();
-                InfoImpl info = new InfoImpl();
-                info.setTitle(appInfo.appName);
-                info.setVersion(appInfo.appVersion);
-                info.setDescription(appInfo.appDescription);
-
-                Set<Tag> tags = new HashSet<>();
-                Paths paths = new PathsImpl();
-                Components components = new ComponentsImpl();
-                endpointInfos.forEach(endpointInfo -> {
-                    buildPathItem(endpointInfo);
-                    paths.addPathItem(endpointInfo.path, endpointInfo.pathItemComponent.pathItem);
-                    if (endpointInfo.pathItemComponent.schemaComponent != null && !endpointInfo.pathItemComponent.schemaComponent.isEmpty()) {
-                        endpointInfo.pathItemComponent.schemaComponent.forEach(schema -> components.addSchema(endpointInfo.pathItemComponent.componentName, schema));
-                    }
-                    if (!endpointInfo.additionalSchemaComponent.isEmpty()) {
-                        endpointInfo.additionalSchemaComponent.forEach(components::addSchema);
-                    }
-                    if (endpointInfo.responseItemComponent != null && !endpointInfo.responseItemComponent.componentTypeList.isEmpty()) {
-                        components.addSchema(endpointInfo.responseItemComponent.componentName, endpointInfo.responseItemComponent.componentTypeList.get(0));
-                    }
+        Scanned(String targetDirectory, boolean incremental, @Nullable String mergedContractName, ContractFormat format, boolean schemasFromSources,
+                boolean nativeMapSchemas) {
+            this.targetDirectory = targetDirectory;
+            this.incremental = incremental;
+            this.mergedContractName = mergedContractName;
+            this.format = format;
+            this.schemasFromSources = schemasFromSources;
+            this.nativeMapSchemas = nativeMapSchemas;
+            this.manifestPath = Paths.get(targetDirectory, ContractManifest.FILE_NAME).normalize();
+        }
+    }
 
-                    Tag tag = new TagImpl();
-                    tag.setName(endpointInfo.tag);
-                    tags.add(tag);
-                });
-                openAPI.setInfo(info);
-                openAPI.setPaths(paths);
-                openAPI.setTags(new ArrayList<>(tags));
-                openAPI.setComponents(components);
+    @Override
+    public Scanned getInitialValue(ExecutionContext ctx) {
+        return new Scanned(targetDirectory != null ? targetDirectory : "./target", Boolean.TRUE.equals(incremental), mergedContractName,
+                ContractFormat.of(outputFormat), Boolean.TRUE.equals(schemasFromSources), Boolean.TRUE.equals(nativeMapSchemas));
+    }
 
-                return openAPI;
-            }
+    @Override
+    public TreeVisitor<?, ExecutionContext> getScanner(Scanned acc) {
 
-            /**
-             * Construction du pathItem
-             * @param endpointInfo
-             */
-            private void buildPathItem(EndpointInfo endpointInfo) {
-                PathItem pathItem = new PathItemImpl();
-                Operation operation = new OperationImpl();
-                operation.setOperationId(endpointInfo.operationId);
-                operation.setSummary(endpointInfo.operationId);
-                operation.setDescription(endpointInfo.description);
-                operation.addTag(endpointInfo.tag);
-
-                //On ajoute tous les params dans le requestBody
-                if (!endpointInfo.requestBodyParametersMap.isEmpty() && !endpointInfo.requestParametersMap.isEmpty()) {
-                    endpointInfo.requestBodyParametersMap.putAll(endpointInfo.requestParametersMap);
-                    endpointInfo.requestParametersMap.clear();
-                }
+        ClassNameMatcher classesToProcess = ClassNameMatcher.compile(fullyQualifiedClassToProcess);
 
-                if (!endpointInfo.requestBodyParametersMap.isEmpty()) {
-                    RequestBody requestBody = new RequestBodyImpl();
-                    requestBody.setRequired(true);
-                    Content content = new ContentImpl();
-                    MediaType mediaType = new MediaTypeImpl();
-                    if (endpointInfo.requestBodyParametersMap.size() == 1) {
-                        endpointInfo.requestBodyParametersMap.forEach((name, componentParam) -> {
-                            mediaType.setSchema(componentParam.schema);
-                        });
-                    } else {
-                        Schema schema = new SchemaImpl();
-                        String requestWrapperName = getComponentName(endpointInfo.methodName, "Request");
-                        schema.setRef(ROOT_PATH_COMPONENTS_SCHEMAS + requestWrapperName);
-
-                        //On construit le schema pour le wrapper request
-                        Schema schemaWrapper = new SchemaImpl();
-                        schemaWrapper.setType(Schema.SchemaType.OBJECT);
-                        List<String> descriptionList = new ArrayList<>();
-                        endpointInfo.requestBodyParametersMap.forEach((name, componentParam) -> {
-                            Optional<String> className = getClassName(componentParam.fullyQualified);
-                            className.ifPresent(descriptionList::add);
-                            schemaWrapper.addProperty(name, componentParam.schema);
-                        });
-                        schemaWrapper.setDescription("Wrapper for " + descriptionList);
-                        endpointInfo.additionalSchemaComponent.put(requestWrapperName, schemaWrapper);
-                        mediaType.setSchema(schema);
-                    }
-                    content.setMediaTypes(Collections.singletonMap(javax.ws.rs.core.MediaType.APPLICATION_JSON, mediaType));
-                    requestBody.setContent(content);
-                    operation.setRequestBody(requestBody);
-                } else if (!endpointInfo.requestParametersMap.isEmpty()) {
-                    endpointInfo.requestParametersMap.forEach((name, componentParam) -> {
-                        Parameter parameter = new ParameterImpl();
-                        parameter.setName(name);
-                        parameter.setIn(Parameter.In.QUERY);
-                        LOG.info("parameters {} with type {}", name, componentParam);
-                        parameter.setSchema(componentParam.schema);
-                        operation.addParameter(parameter);
-                    });
-                }
+        JavaIsoVisitor<ExecutionContext> remoteInterfaceScanner = new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext executionContext) {
+                J.ClassDeclaration classDeclaration = super.visitClassDeclaration(classDecl, executionContext);
 
-                APIResponses apiResponses = new APIResponsesImpl();
-                APIResponse apiResponse = new APIResponseImpl();
-                if (endpointInfo.responseItemComponent == null) {
-                    apiResponse.setDescription("no content");
-                    apiResponses.addAPIResponse("default", apiResponse);
-                    operation.setResponses(apiResponses);
-                } else {
-                    apiResponse.setDescription("OK");
-                    Content content = new ContentImpl();
-                    MediaType mediaType = new MediaTypeImpl();
-                    if (endpointInfo.responseItemComponent.fullyQualified != null || endpointInfo.responseItemComponent.componentName != null) {
-                        SchemaFormat schemaFormat = getSchemaFormat(endpointInfo.responseItemComponent.fullyQualified != null ? endpointInfo.responseItemComponent.fullyQualified : endpointInfo.responseItemComponent.componentName);
-                        Schema schema = new SchemaImpl();
-                        if (!schemaFormat.schemaType.equals(Schema.SchemaType.OBJECT)) {
-                            if (endpointInfo.responseItemComponent.responseWrapper != null && isCollection(endpointInfo.responseItemComponent.responseWrapper)) {
-                                schema.setType(Schema.SchemaType.ARRAY);
-                                Schema schemaItem = new SchemaImpl();
-                                schemaItem.setType(schemaFormat.schemaType);
-                                schema.setItems(schemaItem);
-                                if (isUniqueCollection(endpointInfo.responseItemComponent.responseWrapper)) {
-                                    schema.uniqueItems(true);
-                                }
-                            } else {
-                                schema.setType(schemaFormat.schemaType);
-                            }
-                        } else {
-                            if (endpointInfo.responseItemComponent.responseWrapper != null && isCollection(endpointInfo.responseItemComponent.responseWrapper)) {
-                                schema.setType(Schema.SchemaType.ARRAY);
-                                Schema schemaItem = new SchemaImpl();
-                                schemaItem.setRef(ROOT_PATH_COMPONENTS_SCHEMAS + endpointInfo.responseItemComponent.componentName);
-                                schema.setItems(schemaItem);
-                                if (isUniqueCollection(endpointInfo.responseItemComponent.responseWrapper)) {
-                                    schema.uniqueItems(true);
-                                }
-                            } else {
-                                schema.setRef(ROOT_PATH_COMPONENTS_SCHEMAS + endpointInfo.responseItemComponent.componentName);
-                            }
-                        }
-                        mediaType.setSchema(schema);
-                    } else if (!endpointInfo.responseItemComponent.componentTypeList.isEmpty()) {
-                        mediaType.setSchema(endpointInfo.responseItemComponent.componentTypeList.get(0));
-                        endpointInfo.responseItemComponent.componentTypeList.clear();
+                if (FindRemoteInterfaceVisitor.find(getCursor().getParentTreeCursor().getValue(), classDecl).get()) {
+                    String classQualified = TypeUtils.asFullyQualified(classDecl.getType()).getFullyQualifiedName();
+                    if (classesToProcess.matches(classQualified)) {
+                        //Les contrats sont construits une fois le scan terminé, à partir des seules signatures
+                        acc.remoteInterfaces.put(classQualified, RemoteInterfaceSummary.of(classQualified, classDeclaration));
                     }
-                    content.setMediaTypes(Collections.singletonMap(javax.ws.rs.core.MediaType.APPLICATION_JSON, mediaType));
-                    apiResponse.setContent(content);
-                    apiResponses.addAPIResponse(String.valueOf(HttpStatus.SC_OK), apiResponse);
-                    operation.setResponses(apiResponses);
-                }
-
-                if (endpointInfo.action.equalsIgnoreCase(HttpMethod.GET)) {
-                    pathItem.GET(operation);
-                } else if (endpointInfo.action.equalsIgnoreCase(HttpMethod.POST)) {
-                    pathItem.POST(operation);
-                } else if (endpointInfo.action.equalsIgnoreCase(HttpMethod.PUT)) {
-                    pathItem.PUT(operation);
-                } else if (endpointInfo.action.equalsIgnoreCase(HttpMethod.DELETE)) {
-                    pathItem.DELETE(operation);
                 }
-
-                PathItemComponent pathItemComponent = new PathItemComponent();
-                pathItemComponent.pathItem = pathItem;
-                endpointInfo.pathItemComponent = pathItemComponent;
-            }
-
-            private void buildEndpointInfo(List<Expression> arguments, EndpointInfo endpointInfo) {
-                arguments.forEach(expression -> {
-                    String simpleName = ((J.Identifier) ((J.Assignment) expression).getVariable()).getSimpleName();
-                    Expression assignment = ((J.Assignment) expression).getAssignment();
-                    String value = null;
-                    if (assignment instanceof J.Literal) {
-                        value = (String) ((J.Literal) assignment).getValue();
-                    } else if (assignment instanceof J.FieldAccess) {
-                        value = ((J.FieldAccess) assignment).getSimpleName();
-                    }
-                    if (EndpointInfo.PATH_NAME.equals(simpleName)) {
-                        endpointInfo.path = value;
-                    } else if (EndpointInfo.ACTION_NAME.equals(simpleName)) {
-                        endpointInfo.action = value;
-                    } else if (EndpointInfo.TAG_NAME.equals(simpleName)) {
-                        endpointInfo.tag = value;
-                    } else if (EndpointInfo.DESCRIPTION_NAME.equals(simpleName)) {
-                        endpointInfo.description = value;
-                    }
-                });
+                return classDeclaration;
             }
+        };
 
-            private Map<String, Schema> buildSchemaForObject(ComponentParam componentParam) {
-                LOG.info("create yaml definition for {}", componentParam.fullyQualified);
-                try {
-                    Class<?> aClass = getClass().getClassLoader().loadClass(componentParam.fullyQualified);
-                    Map<String, io.swagger.v3.oas.models.media.Schema> schemas = ModelConverters.getInstance().readAll(aClass);
-                    Map<String, Schema> schemaResultMap = new TreeMap<>();
-                    if (schemas != null && !schemas.isEmpty()) {
-                        schemas.forEach((key, value) -> {
-                            Schema schema = SchemaConverter.convert(value);
-                            schema.setDescription(componentParam.fullyQualified);
-                            Optional<String> className = getClassName(componentParam.fullyQualified);
-                            if (className.isPresent() && key.equalsIgnoreCase(className.get())) {
-                                schemaResultMap.put(componentParam.name, schema);
-                            } else {
-                                schemaResultMap.put(key, schema);
-                            }
-                        });
-                        return schemaResultMap;
-                    } else if (aClass.getEnumConstants() != null && aClass.getEnumConstants().length > 0) {
-                        Schema schema = new SchemaImpl();
-                        schema.setType(Schema.SchemaType.STRING);
-                        schema.setEnumeration(Arrays.stream(aClass.getEnumConstants()).map(Object::toString).collect(Collectors.toList()));
-                        return Collections.singletonMap(componentParam.name, schema);
-                    } else {
-                        SchemaFormat schemaFormat = getSchemaFormat(componentParam.fullyQualified);
-                        return Collections.singletonMap(componentParam.name, getSchema(schemaFormat.schemaType, schemaFormat.format));
-                    }
-                } catch (ClassNotFoundException e) {
-                    LOG.error("ClassNotFoundException, Error while create schema for object " + componentParam.fullyQualified + ".\n -> Add this class to dependency in rewrite-maven-plugin");
-                    SchemaFormat schemaFormat = getSchemaFormat(componentParam.fullyQualified);
-                    if (schemaFormat.schemaType != null) {
-                        return Collections.singletonMap(componentParam.name, getSchema(schemaFormat.schemaType, schemaFormat.format));
+        //Les contrats et le manifeste ne sont pas des sources java : le scanner accepte toutes les sources
+        return new TreeVisitor<Tree, ExecutionContext>() {
+            @Override
+            public @org.jspecify.annotations.Nullable Tree visit(@org.jspecify.annotations.Nullable Tree tree, ExecutionContext executionContext) {
+                if (tree instanceof SourceFile) {
+                    Path sourcePath = ((SourceFile) tree).getSourcePath().normalize();
+                    acc.existingSourcePaths.add(sourcePath);
+                    if (sourcePath.equals(acc.manifestPath)) {
+                        acc.manifestContent = ((SourceFile) tree).printAll();
                     }
                 }
-                return Collections.emptyMap();
-            }
-
-            private Schema getSchema(Schema.SchemaType schemaType, String format) {
-                Schema schema = new SchemaImpl();
-                schema.setType(schemaType);
-                if (format != null) {
-                    schema.setFormat(format);
-                }
-                return schema;
-            }
-
-            /**
-             *
-             * @param fullyQualifiedName
-             * @return
-             */
-            private Optional<String> getClassName(String fullyQualifiedName) {
-                if (fullyQualifiedName == null) {
-                    return Optional.empty();
-                }
-                JavaType.FullyQualified fullyQualified = TypeUtils.asFullyQualified(JavaType.buildType(fullyQualifiedName));
-                if (fullyQualified != null) {
-                    return Optional.of(fullyQualified.getClassName());
-                } else {
-                    return Optional.of(fullyQualifiedName);
-                }
-            }
-
-            private SchemaFormat getSchemaFormat(String type) {
-                SchemaFormat schemaFormat = new SchemaFormat();
-                if (TypeUtils.isOfType(JavaType.buildType(type), JavaType.Primitive.Void)) {
-                    return schemaFormat;
-                } else if (TypeUtils.isOfType(JavaType.buildType(type), JavaType.Primitive.String)) {
-                    schemaFormat.schemaType = Schema.SchemaType.STRING;
-                    return schemaFormat;
-                } else if (TypeUtils.isOfType(JavaType.buildType(type), JavaType.Primitive.Boolean) || type.equals(Boolean.class.getName())) {
-                    schemaFormat.schemaType = Schema.SchemaType.BOOLEAN;
-                    return schemaFormat;
-                } else if (Date.class.getName().equals(type) || LocalDate.class.getName().equals(type)) {
-                    schemaFormat.schemaType = Schema.SchemaType.STRING;
-                    schemaFormat.format = "date";
-                    return schemaFormat;
-                } else if (LocalTime.class.getName().equals(type) || LocalDateTime.class.getName().equals(type) || OffsetDateTime.class.getName().equals(type)) {
-                    schemaFormat.schemaType = Schema.SchemaType.STRING;
-                    schemaFormat.format = "date-time";
-                    return schemaFormat;
-                } else if (isIntegerNumeric(type)) {
-                    Optional<String> numericFormat = getNumericFormat(type);
-                    schemaFormat.schemaType = Schema.SchemaType.INTEGER;
-                    numericFormat.ifPresent(string -> schemaFormat.format = string);
-                    return schemaFormat;
-                } else if (isDoubleNumeric(type)) {
-                    Optional<String> numericFormat = getNumericFormat(type);
-                    schemaFormat.schemaType = Schema.SchemaType.NUMBER;
-                    numericFormat.ifPresent(string -> schemaFormat.format = string);
-                    return schemaFormat;
-                } else {
-                    schemaFormat.schemaType = Schema.SchemaType.OBJECT;
-                    return schemaFormat;
+                if (tree instanceof J.CompilationUnit) {
+                    acc.typeIndex.index((J.CompilationUnit) tree).forEach(acc.typeHierarchy::add);
+                    remoteInterfaceScanner.visit(tree, executionContext);
                 }
-            }
-
-            private Optional<String> getNumericFormat(String type) {
-                if (isLong(type)) {
-                    return Optional.of("int64");
-                } else if (isInteger(type)) {
-                    return Optional.of("int32");
-                } else if (isDoubleNumeric(type)) {
-                    return Optional.of("double");
-                } else {
-                    return Optional.empty();
-                }
-            }
-
-            private boolean isLong(String type) {
-                return (TypeUtils.isOfType(JavaType.buildType(type), JavaType.Primitive.Long)
-                        || type.equals(Long.class.getName()));
-            }
-
-            private boolean isInteger(String type) {
-                return (TypeUtils.isOfType(JavaType.buildType(type), JavaType.Primitive.Int)
-                        || type.equals(Integer.class.getName()));
-            }
-
-            private boolean isIntegerNumeric(String type) {
-                return (TypeUtils.isOfType(JavaType.buildType(type), JavaType.Primitive.Long)
-                        || TypeUtils.isOfType(JavaType.buildType(type), JavaType.Primitive.Int)
-                        || type.equals(Long.class.getName()) || type.equals(Integer.class.getName()));
-            }
-
-            private boolean isDoubleNumeric(String type) {
-                return (TypeUtils.isOfType(JavaType.buildType(type), JavaType.Primitive.Float)
-                        || TypeUtils.isOfType(JavaType.buildType(type), JavaType.Primitive.Double)
-                        || TypeUtils.isOfType(JavaType.buildType(type), JavaType.Primitive.Short)
-                        || type.equals(Double.class.getName()) || type.equals(Float.class.getName())
-                        || type.equals(Short.class.getName()) || type.equals(BigDecimal.class.getName()));
-            }
-
-            private boolean isCollection(String type) {
-                return type.equalsIgnoreCase(List.class.getSimpleName())
-                        || type.equalsIgnoreCase(Collection.class.getSimpleName())
-                        || type.equalsIgnoreCase(ArrayList.class.getSimpleName())
-                        || type.equalsIgnoreCase(Vector.class.getSimpleName())
-                        || type.equalsIgnoreCase(LinkedList.class.getSimpleName())
-                        || type.equalsIgnoreCase(Stack.class.getSimpleName())
-                        || isUniqueCollection(type);
-            }
-
-            private boolean isMap(String type) {
-                return type.equalsIgnoreCase(Map.class.getSimpleName())
-                        || type.equalsIgnoreCase(HashMap.class.getSimpleName())
-                        || type.equalsIgnoreCase(LinkedHashMap.class.getSimpleName())
-                        || type.equalsIgnoreCase(TreeMap.class.getSimpleName())
-                        || type.equalsIgnoreCase(Hashtable.class.getSimpleName())
-                        || type.equalsIgnoreCase(ConcurrentHashMap.class.getSimpleName())
-                        || type.equalsIgnoreCase(ConcurrentMap.class.getSimpleName())
-                        || type.equalsIgnoreCase(ConcurrentSkipListMap.class.getSimpleName())
-                        || type.equalsIgnoreCase(EnumMap.class.getSimpleName())
-                        || type.equalsIgnoreCase(SortedMap.class.getSimpleName())
-                        || type.equalsIgnoreCase(NavigableMap.class.getSimpleName());
-            }
-
-            private boolean isUniqueCollection(String type) {
-                return type.equalsIgnoreCase(Set.class.getSimpleName())
-                        || type.equalsIgnoreCase(SortedSet.class.getSimpleName())
-                        || type.equalsIgnoreCase(HashSet.class.getSimpleName())
-                        || type.equalsIgnoreCase(TreeSet.class.getSimpleName())
-                        || type.equalsIgnoreCase(LinkedHashSet.class.getSimpleName());
-            }
-
-            private String toDashCase(final String value) {
-                String regex = "(?=[A-Z][a-z])";
-                String subst = "-";
-                Pattern pattern = Pattern.compile(regex);
-                Matcher matcher = pattern.matcher(value);
-                String result = matcher.replaceAll(subst);
-                return result.toLowerCase();
-            }
-
-            private String getComponentName(final String value, final String suffix) {
-                return RewriteUtils.firstUpperCase(value + suffix);
+                return tree;
             }
         };
     }
 
+    /**
+     * All the sources are scanned, the contracts of the remote interfaces are built in parallel
+     * and returned as new source files, keyed by fully qualified name, or merged into a single document.
+     * In incremental mode the manifest is returned with them, when it changed.
+     * A contract or a manifest already among the sources is updated by the visitor.
+     */
     @Override
-    public TreeVisitor<?, ExecutionContext> getVisitor(String tDirectory) {
-        return new EJBRemoteToRestVisitor(tDirectory);
-    }
-
-    public static class EJBRemoteToRestVisitor extends JavaIsoVisitor<ExecutionContext> {
-
-        private final String tDirectory;
-
-        public EJBRemoteToRestVisitor(String tDirectory) {
-            this.tDirectory = tDirectory;
+    public Collection<? extends SourceFile> generate(Scanned acc, ExecutionContext ctx) {
+        LOG.info("Retained {} type summaries and {} remote interfaces after scanning", acc.typeIndex.size(), acc.remoteInterfaces.size());
+        //Le document fusionné a besoin de tous les contrats
+        ContractManifest manifest = acc.incremental && acc.mergedContractName == null ? ContractManifest.load(acc.manifestPath, acc.manifestContent) : null;
+        Map<String, Path> contractPaths = contractPaths(acc);
+        Map<String, OpenAPI> contracts = buildContracts(acc, manifest, contractPaths, row -> endpoints.insertRow(ctx, row));
+
+        Map<Path, OpenAPI> contractFiles = new TreeMap<>();
+        if (acc.mergedContractName != null) {
+            if (!contracts.isEmpty()) {
+                contractFiles.put(Paths.get(acc.targetDirectory, acc.mergedContractName + acc.format.getExtension()).normalize(),
+                        ContractMerger.merge(acc.mergedContractName, contracts));
+            }
+        } else {
+            contracts.forEach((fullyQualifiedName, openAPI) -> contractFiles.put(contractPaths.get(fullyQualifiedName), openAPI));
         }
 
-        @Override
-        public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext executionContext) {
-            J.ClassDeclaration classDeclaration = super.visitClassDeclaration(classDecl, executionContext);
-            Object message = executionContext.getMessage(classDeclaration.getSimpleName());
-            if (message instanceof OpenAPI) {
-                LOG.info("Call openApiVisitor after visit");
-                doAfterVisit(new GenerateOpenApiVisitor(tDirectory));
+        List<SourceFile> generated = new ArrayList<>();
+        //Les contrats sont écrits un à un par le thread de la recette : un seul dumper pour cette génération
+        Yaml dumper = ParserMicroprofile.newDumper();
+        contractFiles.forEach((sourcePath, openAPI) -> {
+            addSource(acc, acc.format.toSourceFile(openAPI, sourcePath, dumper), generated);
+            LOG.info("OpenAPI contract generated: {}", sourcePath);
+        });
+        if (manifest != null) {
+            //Les interfaces supprimées ou exclues ne gardent pas leur empreinte
+            manifest.fullyQualifiedNames().stream()
+                    .filter(fullyQualifiedName -> !acc.remoteInterfaces.containsKey(fullyQualifiedName))
+                    .forEach(manifest::remove);
+            //Écrit comme les contrats, jamais lors d'un dry run
+            if (manifest.isChanged()) {
+                addSource(acc, manifest.toSourceFile(), generated);
             }
-            return classDeclaration;
         }
+        LOG.info("Schema cache statistics: {}", acc.schemaCache);
+        return generated;
     }
 
-    static class AppInfo {
-        String appName;
-
-        String appDescription;
-
-        String appVersion;
-
-        AppInfo(final String appName, final String appDescription, final String version) {
-            this.appName = appName;
-            this.appDescription = appDescription;
-            this.appVersion = version;
+    private static void addSource(Scanned acc, SourceFile sourceFile, List<SourceFile> generated) {
+        if (acc.existingSourcePaths.contains(sourceFile.getSourcePath())) {
+            acc.updatedSources.put(sourceFile.getSourcePath(), sourceFile);
+        } else {
+            generated.add(sourceFile);
         }
     }
 
-    static class EndpointInfo {
-
-        final static String PATH_NAME = "path";
-
-        final static String TAG_NAME = "tag";
-
-        final static String DESCRIPTION_NAME = "description";
-
-        final static String ACTION_NAME = "action";
-
-        String path;
-
-        String tag;
-
-        String description;
-
-        String action;
-
-        String operationId;
-
-        String methodName;
-
-        Map<String, ComponentParam> requestParametersMap = new HashMap<>();
-
-        Map<String, ComponentParam> requestBodyParametersMap = new HashMap<>();
-
-        ResponseItemComponent responseItemComponent;
-
-        PathItemComponent pathItemComponent;
-
-        Map<String, Schema> additionalSchemaComponent = new TreeMap<>();
-
-    }
-
-    static class ComponentParam {
-        String fullyQualified;
-
-        Schema schema;
-
-        String name;
-    }
-
-    static class ResponseItemComponent {
-
-        String fullyQualified;
-
-        String componentName;
-
-        List<Schema> componentTypeList = new ArrayList<>();
-
-        String responseWrapper;
-
+    /**
+     * A contract is named after the simple name of its remote interface,
+     * or after its fully qualified name when several remote interfaces share the simple name.
+     *
+     * @param acc
+     * @return the path of the contract by fully qualified name of the remote interface
+     */
+    private static Map<String, Path> contractPaths(Scanned acc) {
+        Map<String, Long> simpleNames = new HashMap<>();
+        acc.remoteInterfaces.values().forEach(remoteInterface -> simpleNames.merge(remoteInterface.getSimpleName(), 1L, Long::sum));
+        Map<String, Path> contractPaths = new TreeMap<>();
+        acc.remoteInterfaces.forEach((fullyQualifiedName, remoteInterface) -> {
+            String name = simpleNames.get(remoteInterface.getSimpleName()) > 1 ? fullyQualifiedName : remoteInterface.getSimpleName();
+            contractPaths.put(fullyQualifiedName, Paths.get(acc.targetDirectory, name + acc.format.getExtension()).normalize());
+        });
+        return contractPaths;
     }
 
-    static class PathItemComponent {
-
-        PathItem pathItem;
-
-        List<Schema> schemaComponent;
-
-        String componentName;
-
+    /**
+     * Each remote interface is built by its own OpenApiContractBuilder on a bounded fork-join pool.
+     * The results are merged in fully qualified name order, whatever the order the tasks complete.
+     * In incremental mode, an interface whose fingerprint matches the manifest and whose contract exists next to the manifest,
+     * among the sources or on disk, is skipped,
+     * an interface without contract loses its fingerprint.
+     * The inventory rows of a contract are collected by its task and passed on in the same order, on the calling thread.
+     *
+     * @param acc
+     * @param manifest the fingerprints of the previous run, null when not incremental
+     * @param contractPaths
+     * @param inventory
+     * @return the contracts by fully qualified name of the remote interface
+     */
+    private static Map<String, OpenAPI> buildContracts(Scanned acc, @Nullable ContractManifest manifest, Map<String, Path> contractPaths,
+                                                       Consumer<EndpointInventory.Row> inventory) {
+        Map<String, OpenAPI> contracts = new TreeMap<>();
+        if (acc.remoteInterfaces.isEmpty()) {
+            return contracts;
+        }
+        //La hiérarchie est complète avant le premier contrat : les sous-types ne dépendent pas de l'ordre des tâches
+        acc.typeHierarchy.scanAndFreeze(RemoteInterfaceSummary.referencedPackages(acc.remoteInterfaces.values()));
+        int parallelism = Math.min(Runtime.getRuntime().availableProcessors(), acc.remoteInterfaces.size());
+        ClassLoader classLoader = EJBRemoteToRest.class.getClassLoader();
+        ForkJoinPool pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("ejb-remote-to-rest-" + thread.getPoolIndex());
+            thread.setContextClassLoader(classLoader);
+            return thread;
+        }, null, false);
+        try {
+            Map<String, ForkJoinTask<OpenAPI>> tasks = new TreeMap<>();
+            Map<String, List<EndpointInventory.Row>> rows = new HashMap<>();
+            acc.remoteInterfaces.forEach((fullyQualifiedName, remoteInterface) -> {
+                List<EndpointInventory.Row> contractRows = new ArrayList<>();
+                rows.put(fullyQualifiedName, contractRows);
+                tasks.put(fullyQualifiedName, pool.submit(() -> buildContract(acc, manifest, fullyQualifiedName, remoteInterface,
+                        contractPaths.get(fullyQualifiedName), contractRows::add)));
+            });
+            tasks.forEach((fullyQualifiedName, task) -> {
+                OpenAPI openAPI = task.join();
+                if (openAPI != null) {
+                    contracts.put(fullyQualifiedName, openAPI);
+                }
+                rows.remove(fullyQualifiedName).forEach(inventory);
+            });
+        } finally {
+            pool.shutdown();
+        }
+        return contracts;
     }
 
-    static class SchemaFormat {
-
-        Schema.SchemaType schemaType;
-
-        String format;
+    private static @Nullable OpenAPI buildContract(Scanned acc, @Nullable ContractManifest manifest, String fullyQualifiedName, RemoteInterfaceSummary remoteInterface,
+                                                   Path contractPath, Consumer<EndpointInventory.Row> inventory) {
+        if (manifest == null) {
+            return new OpenApiContractBuilder(acc.typeIndex, acc.typeHierarchy, acc.schemaCache, acc.schemasFromSources, acc.nativeMapSchemas).build(remoteInterface, inventory);
+        }
+        String fingerprint = ContractFingerprint.of(remoteInterface, acc.typeIndex, acc.typeHierarchy, acc.schemasFromSources, acc.nativeMapSchemas);
+        //Le contrat est cherché là où le manifeste a été lu : parmi les sources, ou sur le disque
+        boolean contractExists = acc.existingSourcePaths.contains(contractPath)
+                || (acc.manifestContent == null && Files.exists(contractPath));
+        if (manifest.isUpToDate(fullyQualifiedName, fingerprint) && contractExists) {
+            LOG.info("Contract of {} is up to date, skipped", fullyQualifiedName);
+            return null;
+        }
+        OpenAPI openAPI = new OpenApiContractBuilder(acc.typeIndex, acc.typeHierarchy, acc.schemaCache, acc.schemasFromSources, acc.nativeMapSchemas).build(remoteInterface, inventory);
+        if (openAPI != null) {
+            manifest.put(fullyQualifiedName, fingerprint);
+        } else {
+            manifest.remove(fullyQualifiedName);
+        }
+        return openAPI;
     }
 
-    static class InheritanceInfo {
-
-        Set<Class<?>> subtypes = new HashSet<>();
-
-        String fullyQualifiedSuperClass;
-
-        boolean isInterface;
+    /**
+     * Replace the contracts and the manifest already among the sources by their new version
+     */
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor(Scanned acc) {
+        return new TreeVisitor<Tree, ExecutionContext>() {
+            @Override
+            public @org.jspecify.annotations.Nullable Tree visit(@org.jspecify.annotations.Nullable Tree tree, ExecutionContext executionContext) {
+                if (tree instanceof SourceFile) {
+                    SourceFile sourceFile = (SourceFile) tree;
+                    SourceFile updated = acc.updatedSources.get(sourceFile.getSourcePath().normalize());
+                    if (updated != null && !updated.printAll().equals(sourceFile.printAll())) {
+                        return ((SourceFile) updated.withId(sourceFile.getId())).withSourcePath(sourceFile.getSourcePath());
+                    }
+                }
+                return tree;
+            }
+        };
     }
 }
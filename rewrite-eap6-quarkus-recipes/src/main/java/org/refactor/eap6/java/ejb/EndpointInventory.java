@@ -0,0 +1,53 @@
+package org.refactor.eap6.java.ejb;
+
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+/**
+ * One row per operation of the generated OpenAPI contracts
+ */
+public class EndpointInventory extends DataTable<EndpointInventory.Row> {
+
+    public EndpointInventory(Recipe recipe) {
+        super(recipe, "OpenAPI endpoints",
+                "The operations of the OpenAPI contracts generated from the EJB remote interfaces. The contracts skipped by an incremental run are not listed.");
+    }
+
+    @Value
+    public static class Row {
+
+        @Column(displayName = "Remote interface",
+                description = "The fully qualified name of the EJB remote interface.")
+        String remoteInterface;
+
+        @Column(displayName = "Path",
+                description = "The path of the operation.")
+        String path;
+
+        @Column(displayName = "Verb",
+                description = "The HTTP method of the operation.")
+        String verb;
+
+        @Column(displayName = "Operation id",
+                description = "The operationId of the operation.")
+        String operationId;
+
+        @Column(displayName = "Parameter count",
+                description = "The number of parameters of the remote method.")
+        int parameterCount;
+
+        @Column(displayName = "Request schema",
+                description = "The schema of the request body, empty when the parameters are sent as query parameters.")
+        String requestSchema;
+
+        @Column(displayName = "Response schema",
+                description = "The schema of the response, the schema of the items for a collection.")
+        String responseSchema;
+
+        @Column(displayName = "Collection response",
+                description = "Whether the response is an array.")
+        boolean collectionResponse;
+    }
+}
@@ -0,0 +1,216 @@
+package org.refactor.eap6.java.ejb;
+
+import io.smallrye.openapi.api.models.media.SchemaImpl;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.tree.Flag;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.TypeUtils;
+import org.refactor.eap6.java.ejb.OpenApiContractBuilder.SchemaFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Schemas of a DTO read from its attributed type in the LST, the class is never loaded.
+ * The result has the shape of the ModelConverters one: the model of the DTO and of every DTO it references, keyed by class name,
+ * each model described by the fully qualified name of its class.
+ * The properties are the instance fields, the inherited ones first. Transient fields and fields annotated with
+ * {@code @JsonIgnore} are skipped, a field renamed by {@code @JsonProperty} takes its name when the DTO is declared in the sources.
+ */
+class JavaTypeSchemaReader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JavaTypeSchemaReader.class);
+
+    private static final String ROOT_PATH_COMPONENTS_SCHEMAS = "#/components/schemas/";
+
+    private static final String JSON_IGNORE = "com.fasterxml.jackson.annotation.JsonIgnore";
+
+    private final TypeIndex typeIndex;
+
+    private final Map<String, Schema> schemas = new TreeMap<>();
+
+    private JavaTypeSchemaReader(TypeIndex typeIndex) {
+        this.typeIndex = typeIndex;
+    }
+
+    /**
+     * @param fullyQualified
+     * @param type           attributed type, looked up among the scanned declarations when null
+     * @param typeIndex
+     * @return the schemas keyed by class name, empty for void
+     */
+    static Map<String, Schema> read(String fullyQualified, @Nullable JavaType type, TypeIndex typeIndex) {
+        LOG.info("create yaml definition for {} from its attributed type", fullyQualified);
+        String className = SchemaTypes.className(fullyQualified);
+        SchemaFormat schemaFormat = SchemaTypes.format(fullyQualified);
+        if (schemaFormat.schemaType == null) {
+            return Collections.emptyMap();
+        }
+        if (schemaFormat.schemaType != Schema.SchemaType.OBJECT) {
+            return Collections.singletonMap(className, getSchema(schemaFormat));
+        }
+        JavaType.FullyQualified fullyQualifiedType = TypeUtils.asFullyQualified(type);
+        if (fullyQualifiedType == null || fullyQualifiedType instanceof JavaType.Unknown) {
+            fullyQualifiedType = typeIndex.find(fullyQualified).map(TypeSummary::getType).orElse(null);
+        }
+        if (fullyQualifiedType == null || fullyQualifiedType instanceof JavaType.Unknown) {
+            LOG.error("No attributed type for {}, its schema is left empty.\n -> Check the classpath of the java parser", fullyQualified);
+            return Collections.singletonMap(className, getSchema(schemaFormat));
+        }
+        if (fullyQualifiedType.getKind() == JavaType.FullyQualified.Kind.Enum) {
+            return Collections.singletonMap(className, enumSchema(fullyQualifiedType));
+        }
+        JavaTypeSchemaReader reader = new JavaTypeSchemaReader(typeIndex);
+        reader.model(fullyQualifiedType);
+        return reader.schemas;
+    }
+
+    /**
+     * Add the model of the type, and of the types it references, once
+     * @return the name of the model
+     */
+    private String model(JavaType.FullyQualified type) {
+        JavaType.FullyQualified rawType = rawType(type);
+        String name = SchemaTypes.className(rawType.getFullyQualifiedName());
+        if (schemas.containsKey(name)) {
+            return name;
+        }
+        Schema schema = new SchemaImpl();
+        schema.setType(Schema.SchemaType.OBJECT);
+        schema.setDescription(rawType.getFullyQualifiedName());
+        //Le modèle est enregistré avant ses propriétés, un type récursif n'est lu qu'une fois
+        schemas.put(name, schema);
+
+        Deque<JavaType.FullyQualified> hierarchy = new ArrayDeque<>();
+        for (JavaType.FullyQualified current = type; current != null && !TypeUtils.isObject(current); current = current.getSupertype()) {
+            hierarchy.push(current);
+        }
+        for (JavaType.FullyQualified current : hierarchy) {
+            Map<String, JavaType> typeArguments = typeArguments(current);
+            Map<String, String> propertyNames = typeIndex.find(rawType(current).getFullyQualifiedName())
+                    .map(TypeSummary::getPropertyNames)
+                    .orElse(Collections.emptyMap());
+            for (JavaType.Variable field : rawType(current).getMembers()) {
+                if (field.hasFlags(Flag.Static) || field.hasFlags(Flag.Transient) || isJsonIgnored(field)) {
+                    continue;
+                }
+                schema.addProperty(propertyNames.getOrDefault(field.getName(), field.getName()), propertySchema(field.getType(), typeArguments));
+            }
+        }
+        return name;
+    }
+
+    private Schema propertySchema(@Nullable JavaType type, Map<String, JavaType> typeArguments) {
+        if (type instanceof JavaType.GenericTypeVariable) {
+            JavaType.GenericTypeVariable typeVariable = (JavaType.GenericTypeVariable) type;
+            JavaType argument = typeArguments.get(typeVariable.getName());
+            if (argument != null && argument != type) {
+                return propertySchema(argument, Collections.emptyMap());
+            }
+            return typeVariable.getBounds().isEmpty() ? getSchema(Schema.SchemaType.OBJECT) : propertySchema(typeVariable.getBounds().get(0), Collections.emptyMap());
+        }
+        if (type instanceof JavaType.Array) {
+            Schema schema = getSchema(Schema.SchemaType.ARRAY);
+            schema.setItems(propertySchema(((JavaType.Array) type).getElemType(), typeArguments));
+            return schema;
+        }
+        if (type instanceof JavaType.Primitive) {
+            SchemaFormat schemaFormat = SchemaTypes.format(type);
+            return schemaFormat.schemaType == null ? getSchema(Schema.SchemaType.OBJECT) : getSchema(schemaFormat);
+        }
+        JavaType.FullyQualified fullyQualified = TypeUtils.asFullyQualified(type);
+        if (fullyQualified == null || fullyQualified instanceof JavaType.Unknown) {
+            return getSchema(Schema.SchemaType.OBJECT);
+        }
+        SchemaFormat schemaFormat = SchemaTypes.format(fullyQualified);
+        if (schemaFormat.schemaType != Schema.SchemaType.OBJECT) {
+            return getSchema(schemaFormat);
+        }
+        List<JavaType> arguments = fullyQualified instanceof JavaType.Parameterized ? fullyQualified.getTypeParameters() : Collections.emptyList();
+        SchemaTypes.Kind kind = SchemaTypes.kind(fullyQualified, null);
+        if (kind.isCollection()) {
+            Schema schema = getSchema(Schema.SchemaType.ARRAY);
+            schema.setItems(arguments.isEmpty() ? getSchema(Schema.SchemaType.OBJECT) : propertySchema(arguments.get(0), typeArguments));
+            if (kind == SchemaTypes.Kind.UNIQUE_COLLECTION) {
+                schema.setUniqueItems(true);
+            }
+            return schema;
+        }
+        if (kind == SchemaTypes.Kind.MAP) {
+            Schema schema = getSchema(Schema.SchemaType.OBJECT);
+            schema.setAdditionalPropertiesSchema(arguments.size() < 2 ? getSchema(Schema.SchemaType.OBJECT) : propertySchema(arguments.get(1), typeArguments));
+            return schema;
+        }
+        if (TypeUtils.isOfClassType(fullyQualified, Optional.class.getName())) {
+            return arguments.isEmpty() ? getSchema(Schema.SchemaType.OBJECT) : propertySchema(arguments.get(0), typeArguments);
+        }
+        if (fullyQualified.getKind() == JavaType.FullyQualified.Kind.Enum) {
+            return enumSchema(fullyQualified);
+        }
+        if (isJdkType(fullyQualified.getFullyQualifiedName())) {
+            return getSchema(Schema.SchemaType.OBJECT);
+        }
+        Schema schema = new SchemaImpl();
+        schema.setRef(ROOT_PATH_COMPONENTS_SCHEMAS + model(fullyQualified));
+        return schema;
+    }
+
+    /**
+     * @param type
+     * @return the type arguments of a parameterized type by name of the type variables of its class
+     */
+    private static Map<String, JavaType> typeArguments(JavaType.FullyQualified type) {
+        if (!(type instanceof JavaType.Parameterized)) {
+            return Collections.emptyMap();
+        }
+        List<JavaType> variables = rawType(type).getTypeParameters();
+        List<JavaType> arguments = type.getTypeParameters();
+        Map<String, JavaType> typeArguments = new HashMap<>();
+        for (int i = 0; i < Math.min(variables.size(), arguments.size()); i++) {
+            if (variables.get(i) instanceof JavaType.GenericTypeVariable) {
+                typeArguments.put(((JavaType.GenericTypeVariable) variables.get(i)).getName(), arguments.get(i));
+            }
+        }
+        return typeArguments;
+    }
+
+    private static JavaType.FullyQualified rawType(JavaType.FullyQualified type) {
+        return type instanceof JavaType.Parameterized ? ((JavaType.Parameterized) type).getType() : type;
+    }
+
+    private static boolean isJsonIgnored(JavaType.Variable field) {
+        return field.getAnnotations().stream().anyMatch(annotation -> JSON_IGNORE.equals(annotation.getFullyQualifiedName()));
+    }
+
+    private static Schema enumSchema(JavaType.FullyQualified enumType) {
+        List<Object> constants = new ArrayList<>();
+        for (JavaType.Variable member : rawType(enumType).getMembers()) {
+            if (member.hasFlags(Flag.Static) && TypeUtils.isOfClassType(member.getType(), enumType.getFullyQualifiedName())) {
+                constants.add(member.getName());
+            }
+        }
+        Schema schema = getSchema(Schema.SchemaType.STRING);
+        schema.setEnumeration(constants);
+        return schema;
+    }
+
+    private static boolean isJdkType(String fullyQualifiedName) {
+        return fullyQualifiedName.startsWith("java.") || fullyQualifiedName.startsWith("javax.");
+    }
+
+    private static Schema getSchema(SchemaFormat schemaFormat) {
+        Schema schema = getSchema(schemaFormat.schemaType);
+        if (schemaFormat.format != null) {
+            schema.setFormat(schemaFormat.format);
+        }
+        return schema;
+    }
+
+    private static Schema getSchema(Schema.SchemaType schemaType) {
+        Schema schema = new SchemaImpl();
+        schema.setType(schemaType);
+        return schema;
+    }
+}
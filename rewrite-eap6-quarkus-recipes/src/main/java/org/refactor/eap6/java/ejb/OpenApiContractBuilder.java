@@ -0,0 +1,817 @@
+package org.refactor.eap6.java.ejb;
+
+import io.smallrye.openapi.api.models.*;
+import io.smallrye.openapi.api.models.info.InfoImpl;
+import io.smallrye.openapi.api.models.media.ContentImpl;
+import io.smallrye.openapi.api.models.media.DiscriminatorImpl;
+import io.smallrye.openapi.api.models.media.MediaTypeImpl;
+import io.smallrye.openapi.api.models.media.SchemaImpl;
+import io.smallrye.openapi.api.models.parameters.ParameterImpl;
+import io.smallrye.openapi.api.models.parameters.RequestBodyImpl;
+import io.smallrye.openapi.api.models.responses.APIResponseImpl;
+import io.smallrye.openapi.api.models.responses.APIResponsesImpl;
+import io.smallrye.openapi.api.models.tags.TagImpl;
+import io.swagger.v3.core.converter.ModelConverters;
+import org.apache.http.HttpStatus;
+import org.eclipse.microprofile.openapi.models.*;
+import org.eclipse.microprofile.openapi.models.media.Content;
+import org.eclipse.microprofile.openapi.models.media.MediaType;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.models.parameters.Parameter;
+import org.eclipse.microprofile.openapi.models.parameters.RequestBody;
+import org.eclipse.microprofile.openapi.models.responses.APIResponse;
+import org.eclipse.microprofile.openapi.models.responses.APIResponses;
+import org.eclipse.microprofile.openapi.models.tags.Tag;
+import org.openrewrite.java.tree.*;
+import org.refactor.eap6.java.annotation.ToRest;
+import org.refactor.eap6.util.RewriteUtils;
+import org.refactor.eap6.yaml.util.SchemaConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.HttpMethod;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Build the OpenAPI contract of one remote interface.
+ * An instance is confined to the thread building the contract, the state shared by the recipe run
+ * (type index, type hierarchy and schema cache) is only read or synchronized, and so are the ModelConverters calls.
+ */
+class OpenApiContractBuilder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OpenApiContractBuilder.class);
+
+    private static final String ROOT_PATH_COMPONENTS_SCHEMAS = "#/components/schemas/";
+
+    /**
+     * The swagger ModelConverters singleton shares its converter chain and resolved models between calls:
+     * the contracts built in parallel read the classes one at a time
+     */
+    private static final Object MODEL_CONVERTERS_LOCK = new Object();
+
+    private final TypeIndex typeIndex;
+
+    private final TypeHierarchy typeHierarchy;
+
+    private final SchemaCache schemaCache;
+
+    private final boolean schemasFromSources;
+
+    private final boolean nativeMapSchemas;
+
+    private final List<EndpointInfo> endpointInfos = new ArrayList<>();
+
+    private final OperationRegistry operationRegistry = new OperationRegistry();
+
+    private final Map<String, BuiltSchema> builtSchemas = new HashMap<>();
+
+    private final Set<String> inProgress = new HashSet<>();
+
+    /**
+     * @param typeIndex
+     * @param typeHierarchy
+     * @param schemaCache
+     * @param schemasFromSources read the DTO schemas from their attributed types instead of loading the classes
+     * @param nativeMapSchemas   write a map as an object with additionalProperties, or as an array of key/value entries
+     *                           when its keys are objects, instead of the wrapper holding a list of keys and a list of values
+     */
+    OpenApiContractBuilder(TypeIndex typeIndex, TypeHierarchy typeHierarchy, SchemaCache schemaCache, boolean schemasFromSources,
+                           boolean nativeMapSchemas) {
+        this.typeIndex = typeIndex;
+        this.typeHierarchy = typeHierarchy;
+        this.schemaCache = schemaCache;
+        this.schemasFromSources = schemasFromSources;
+        this.nativeMapSchemas = nativeMapSchemas;
+    }
+
+    /**
+     * On construit le contrat de l'interface remote
+     * @param remoteInterface
+     * @param inventory receives a row per operation once the contract is built
+     * @return the contract, null when the interface has no method
+     */
+    OpenAPI build(RemoteInterfaceSummary remoteInterface, Consumer<EndpointInventory.Row> inventory) {
+        AppInfo appInfo = new AppInfo(remoteInterface.getSimpleName(), remoteInterface.getSimpleName() + " OpenAPI definition", "1.0.0");
+        //On build les endpoints pour toutes les méthodes remotes
+        remoteInterface.getMethods().forEach(method -> buildEndpoint(method, remoteInterface.getSimpleName()));
+        if (endpointInfos.isEmpty()) {
+            return null;
+        }
+        OpenAPI openAPI = buildYamlContract(appInfo);
+        addInventoryRows(remoteInterface.getFullyQualifiedName(), inventory);
+        return openAPI;
+    }
+
+    private void addInventoryRows(String remoteInterface, Consumer<EndpointInventory.Row> inventory) {
+        endpointInfos.forEach(endpointInfo -> endpointInfo.pathItemComponent.pathItem.getOperations().values().forEach(operation -> {
+            Schema requestSchema = null;
+            if (operation.getRequestBody() != null) {
+                requestSchema = getSchema(operation.getRequestBody().getContent());
+            }
+            Schema responseSchema = null;
+            if (operation.getResponses() != null && operation.getResponses().getAPIResponse(String.valueOf(HttpStatus.SC_OK)) != null) {
+                responseSchema = getSchema(operation.getResponses().getAPIResponse(String.valueOf(HttpStatus.SC_OK)).getContent());
+            }
+            inventory.accept(new EndpointInventory.Row(remoteInterface,
+                    endpointInfo.path,
+                    endpointInfo.action.toUpperCase(Locale.ROOT),
+                    endpointInfo.operationId,
+                    endpointInfo.requestBodyParametersMap.size() + endpointInfo.requestParametersMap.size(),
+                    getSchemaName(requestSchema),
+                    getSchemaName(responseSchema),
+                    responseSchema != null && Schema.SchemaType.ARRAY.equals(responseSchema.getType())));
+        }));
+    }
+
+    private static Schema getSchema(Content content) {
+        if (content == null || content.getMediaTypes() == null || content.getMediaTypes().isEmpty()) {
+            return null;
+        }
+        return content.getMediaTypes().values().iterator().next().getSchema();
+    }
+
+    /**
+     * @param schema
+     * @return the component referenced by the schema or its items, the type of an inline schema, empty for no schema
+     */
+    private static String getSchemaName(Schema schema) {
+        if (schema == null) {
+            return "";
+        } else if (schema.getRef() != null) {
+            return schema.getRef().substring(schema.getRef().lastIndexOf('/') + 1);
+        } else if (schema.getItems() != null) {
+            return getSchemaName(schema.getItems());
+        }
+        return schema.getType() != null ? schema.getType().toString() : "";
+    }
+
+    /**
+     * On construit tous les Endpoints
+     * @param method
+     * @param classname
+     */
+    private void buildEndpoint(RemoteInterfaceSummary.MethodSummary method, String classname) {
+        EndpointInfo endpointInfo = new EndpointInfo();
+        endpointInfo.methodName = method.getName();
+        endpointInfo.operationId = toDashCase(method.getName());
+        TypeTree returnTypeExpression = method.getReturnTypeExpression();
+
+        Schema schemaResponse = buildSchema(returnTypeExpression, endpointInfo.additionalSchemaComponent, 0, null);
+        ResponseItemComponent responseItemComponent = new ResponseItemComponent();
+        responseItemComponent.componentTypeList.add(schemaResponse);
+        endpointInfo.responseItemComponent = responseItemComponent;
+
+        //On recherche l'annotation @ToRest pour orienter la construction du REST point
+        if (method.getToRestArguments() != null) {
+            buildEndpointInfo(method.getToRestArguments(), endpointInfo);
+        } else {
+            LOG.warn("annotation @ToRest not found for method {}", method.getName());
+            endpointInfo.path = "/" + classname + "/" + method.getName();
+            endpointInfo.action = ToRest.ActionType.POST.name();
+            endpointInfo.tag = classname;
+            endpointInfo.description = endpointInfo.operationId;
+        }
+
+        method.getParameters().forEach(parameter -> {
+            TypeTree typeExpression = parameter.getTypeExpression();
+            ComponentParam componentParam = new ComponentParam();
+            Schema schemaRequest = buildSchema(typeExpression, endpointInfo.additionalSchemaComponent, 0, null);
+            String name = parameter.getName();
+            componentParam.name = name;
+            componentParam.schema = schemaRequest;
+            JavaType.FullyQualified fullyQualified = TypeUtils.asFullyQualified(typeExpression.getType());
+            if (fullyQualified != null) {
+                componentParam.fullyQualified = fullyQualified.getFullyQualifiedName();
+            }
+            String className = getClassName(componentParam.fullyQualified).orElse(null);
+            SchemaTypes.Kind kind = SchemaTypes.kind(typeExpression.getType(), className);
+            if (componentParam.schema.getRef() != null || kind.isCollection() || (nativeMapSchemas && kind == SchemaTypes.Kind.MAP)) {
+                endpointInfo.requestBodyParametersMap.put(name, componentParam);
+            } else {
+                endpointInfo.requestParametersMap.put(name, componentParam);
+            }
+        });
+        //On ne peut pas avoir deux fois le meme path
+        operationRegistry.register(endpointInfo);
+        endpointInfos.add(endpointInfo);
+    }
+
+    /**
+     *
+     * @param parameterType
+     * @param additionalSchemaComponent
+     * @return
+     */
+    private Schema buildSchema(TypeTree parameterType, Map<String, Schema> additionalSchemaComponent, int depth, InheritanceInfo inheritInfo) {
+        Schema schema = new SchemaImpl();
+        depth++;
+        if (parameterType instanceof J.ParameterizedType) {
+            List<Expression> typeParameters = ((J.ParameterizedType) parameterType).getTypeParameters();
+            String simpleName = ((J.Identifier) (((J.ParameterizedType) parameterType).getClazz())).getSimpleName();
+            SchemaTypes.Kind kind = SchemaTypes.kind(parameterType.getType(), simpleName);
+            if (kind.isCollection()) {
+                schema.setType(Schema.SchemaType.ARRAY);
+                if (kind == SchemaTypes.Kind.UNIQUE_COLLECTION) {
+                    schema.uniqueItems(true);
+                }
+                Expression last = typeParameters.get(0);
+                schema.setItems(buildSchema((TypeTree) last, additionalSchemaComponent, depth, inheritInfo));
+            } else if (kind == SchemaTypes.Kind.MAP) {
+                Expression first = typeParameters.get(0);
+                Expression last = typeParameters.get(1);
+                String fullyQualifiedType = first.getType().toString();
+                if (fullyQualifiedType.equals(String.class.getName()) || (nativeMapSchemas && isScalarKey(first.getType()))) {
+                    schema.setType(Schema.SchemaType.OBJECT);
+                    schema.setAdditionalPropertiesSchema(buildSchema((TypeTree) last, additionalSchemaComponent, depth, inheritInfo));
+                } else if (nativeMapSchemas) {
+                    //Clé objet : tableau d'entrées clé/valeur
+                    Schema schemaEntry = new SchemaImpl();
+                    schemaEntry.setType(Schema.SchemaType.OBJECT);
+                    schemaEntry.addProperty("key", buildSchema((TypeTree) first, additionalSchemaComponent, depth, inheritInfo));
+                    schemaEntry.addProperty("value", buildSchema((TypeTree) last, additionalSchemaComponent, depth, inheritInfo));
+                    schema.setType(Schema.SchemaType.ARRAY);
+                    schema.setItems(schemaEntry);
+                } else {
+                    String objectName = "CompositeMapResponse" + depth;
+                    schema.setRef(ROOT_PATH_COMPONENTS_SCHEMAS + objectName);
+                    Schema schemaMapComposite = new SchemaImpl();
+                    schemaMapComposite.setDescription("wrapper for Map " + typeParameters);
+                    Schema schemaFirst = buildSchema((TypeTree) first, additionalSchemaComponent, depth, inheritInfo);
+                    Schema schemaFirstList = new SchemaImpl();
+                    schemaFirstList.setType(Schema.SchemaType.ARRAY);
+                    schemaFirstList.setItems(schemaFirst);
+
+                    Schema schemaLast = buildSchema((TypeTree) last, additionalSchemaComponent, depth, inheritInfo);
+                    Schema schemaLastList = new SchemaImpl();
+                    schemaLastList.setType(Schema.SchemaType.ARRAY);
+                    schemaLastList.setItems(schemaLast);
+
+                    schemaMapComposite.addProperty("first", schemaFirstList);
+                    schemaMapComposite.addProperty("last", schemaLastList);
+                    additionalSchemaComponent.put(objectName, schemaMapComposite);
+                }
+            }
+        } else {
+            String key;
+            String name;
+            if (parameterType instanceof J.Primitive) {
+                key = ((J.Primitive) parameterType).getType().toString();
+                name = parameterType.toString();
+            } else {
+                key = ((J.Identifier) parameterType).getSimpleName();
+                name = key;
+            }
+            buildObjectSchema(schema, parameterType.getType().toString(), parameterType.getType(), key, name, additionalSchemaComponent, inheritInfo);
+        }
+        return schema;
+    }
+
+    /**
+     * A key written by Jackson as a JSON object name: string, number, boolean, date or enum
+     * @param keyType
+     * @return
+     */
+    private boolean isScalarKey(JavaType keyType) {
+        SchemaFormat schemaFormat = SchemaTypes.format(keyType);
+        if (schemaFormat.schemaType != null && schemaFormat.schemaType != Schema.SchemaType.OBJECT) {
+            return true;
+        }
+        JavaType.FullyQualified fullyQualified = TypeUtils.asFullyQualified(keyType);
+        return fullyQualified != null && fullyQualified.getKind() == JavaType.FullyQualified.Kind.Enum;
+    }
+
+    /**
+     * Schema of a non generic type, the components it needs are added to additionalSchemaComponent.
+     * A type is expanded once per contract and inheritance context: when it is met again its schema and
+     * components are copied, when it is met while being built it is only referenced.
+     * @param schema
+     * @param fullyQualified
+     * @param type attributed type, when known
+     * @param key
+     * @param name
+     * @param additionalSchemaComponent
+     * @param inheritInfo
+     */
+    private void buildObjectSchema(Schema schema, String fullyQualified, JavaType type, String key, String name, Map<String, Schema> additionalSchemaComponent, InheritanceInfo inheritInfo) {
+        String buildKey = fullyQualified + '|' + key + '|' + name
+                + (inheritInfo == null ? "" : '|' + inheritInfo.fullyQualifiedSuperClass + '|' + inheritInfo.isInterface);
+        BuiltSchema builtSchema = builtSchemas.get(buildKey);
+        if (builtSchema != null) {
+            builtSchema.copyTo(schema, additionalSchemaComponent);
+            return;
+        }
+        if (!inProgress.add(buildKey)) {
+            //Type récursif, le composant sera ajouté par l'appel en cours
+            schema.setRef(ROOT_PATH_COMPONENTS_SCHEMAS + key);
+            return;
+        }
+        Map<String, Schema> components = new LinkedHashMap<>();
+        expandObjectSchema(schema, fullyQualified, type, key, name, components, inheritInfo);
+        inProgress.remove(buildKey);
+        builtSchemas.put(buildKey, new BuiltSchema(schema, components));
+        additionalSchemaComponent.putAll(components);
+    }
+
+    private void expandObjectSchema(Schema schema, String fullyQualified, JavaType type, String key, String name, Map<String, Schema> additionalSchemaComponent, InheritanceInfo inheritInfo) {
+        ComponentParam componentParam = new ComponentParam();
+        componentParam.fullyQualified = fullyQualified;
+        componentParam.type = type;
+        componentParam.name = name;
+        Map<String, Schema> schemaMap = buildSchemaForObject(componentParam);
+        if (schemaMap.size() == 1) {
+            Schema schemaObject = schemaMap.get(key);
+            if (schemaObject.getType().equals(Schema.SchemaType.OBJECT)) {
+                String fullyQualifiedObjectname = schemaObject.getDescription();
+                InheritanceInfo inheritanceInfo = getSubtypes(fullyQualifiedObjectname);
+                if (inheritanceInfo.subtypes.isEmpty()) {
+                    schema.setRef(ROOT_PATH_COMPONENTS_SCHEMAS + key);
+                    schemaMap.forEach((key1, value) -> {
+                        if (inheritInfo != null && !inheritInfo.isInterface) {
+                            Schema globalSchema = new SchemaImpl();
+                            Schema ref = new SchemaImpl();
+                            ref.setRef(ROOT_PATH_COMPONENTS_SCHEMAS + getClassName(inheritInfo.fullyQualifiedSuperClass).get());
+                            globalSchema.addAllOf(ref);
+                            globalSchema.addAllOf(value);
+                            additionalSchemaComponent.put(key1, globalSchema);
+                        } else {
+                            additionalSchemaComponent.put(key1, value);
+                        }
+                    });
+                } else {
+                    if (!inheritanceInfo.isInterface) {
+                        DiscriminatorImpl discriminatorForPath = new DiscriminatorImpl();
+                        String discriminatorPropertyName = "type_" + key.toLowerCase();
+                        discriminatorForPath.propertyName(discriminatorPropertyName);
+                        inheritanceInfo.subtypes.forEach(subtype -> {
+                            addSubtypeToAdditionnalSchemaConmponent(subtype, additionalSchemaComponent, inheritanceInfo);
+                        });
+                        schema.setRef(ROOT_PATH_COMPONENTS_SCHEMAS + key);
+
+                        List<String> required = new ArrayList<>();
+                        required.add(discriminatorPropertyName);
+                        schemaObject.setRequired(required);
+                        DiscriminatorImpl discriminatorObject = new DiscriminatorImpl();
+                        discriminatorObject.propertyName(discriminatorPropertyName);
+                        schemaObject.setDiscriminator(discriminatorObject);
+                        Map<String, Schema> properties = new HashMap<>(schemaObject.getProperties());
+                        properties.put(discriminatorPropertyName, new SchemaImpl().type(Schema.SchemaType.STRING));
+                        schemaObject.setProperties(properties);
+                        additionalSchemaComponent.put(key, schemaObject);
+                    } else {
+                        Schema schemaOneOf = new SchemaImpl();
+                        inheritanceInfo.subtypes.forEach(subtype -> {
+                            Schema schemaRef = new SchemaImpl();
+                            schemaRef.setRef(ROOT_PATH_COMPONENTS_SCHEMAS + getClassName(subtype).get());
+                            schemaOneOf.addOneOf(schemaRef);
+                            addSubtypeToAdditionnalSchemaConmponent(subtype, additionalSchemaComponent, inheritanceInfo);
+                        });
+                        additionalSchemaComponent.put(key, schemaOneOf);
+                        schema.setRef(ROOT_PATH_COMPONENTS_SCHEMAS + key);
+                    }
+                }
+            } else {
+                schema.setType(schemaObject.getType());
+                if (schemaObject.getFormat() != null) {
+                    schema.setFormat(schemaObject.getFormat());
+                }
+            }
+        } else {
+            schema.setRef(ROOT_PATH_COMPONENTS_SCHEMAS + key);
+            schemaMap.forEach((key1, value) -> additionalSchemaComponent.put(key, value));
+        }
+    }
+
+    private void addSubtypeToAdditionnalSchemaConmponent(String fullyQualifiedObjectname, Map<String, Schema> additionalSchemaComponent, InheritanceInfo inheritanceInfo) {
+        Optional<TypeSummary> declaration = typeIndex.find(fullyQualifiedObjectname);
+        if (declaration.isPresent()) {
+            TypeSummary summary = declaration.get();
+            buildObjectSchema(new SchemaImpl(), summary.getFullyQualifiedName(), summary.getType(), summary.getSimpleName(), summary.getSimpleName(), additionalSchemaComponent, inheritanceInfo);
+        } else {
+            LOG.warn("No declaration found in sources for subtype {}", fullyQualifiedObjectname);
+        }
+    }
+
+    /**
+     *
+     * @param fullyQualifiedObjectname
+     * @return
+     */
+    private InheritanceInfo getSubtypes(String fullyQualifiedObjectname) {
+        InheritanceInfo inheritanceInfo = new InheritanceInfo();
+        if (fullyQualifiedObjectname != null) {
+            inheritanceInfo.isInterface = typeHierarchy.isInterface(fullyQualifiedObjectname);
+            inheritanceInfo.fullyQualifiedSuperClass = fullyQualifiedObjectname;
+            inheritanceInfo.subtypes = typeHierarchy.getSubTypesOf(fullyQualifiedObjectname);
+        }
+        return inheritanceInfo;
+    }
+
+    /**
+     * On construit le contrat OpenAPI
+     * @param appInfo
+     * @return
+     */
+    private OpenAPI buildYamlContract(AppInfo appInfo) {
+        OpenAPI openAPI = new OpenAPIImpl();
+        InfoImpl info = new InfoImpl();
+        info.setTitle(appInfo.appName);
+        info.setVersion(appInfo.appVersion);
+        info.setDescription(appInfo.appDescription);
+
+        Set<Tag> tags = new HashSet<>();
+        Paths paths = new PathsImpl();
+        Components components = new ComponentsImpl();
+        endpointInfos.forEach(endpointInfo -> {
+            buildPathItem(endpointInfo);
+            paths.addPathItem(endpointInfo.path, endpointInfo.pathItemComponent.pathItem);
+            if (endpointInfo.pathItemComponent.schemaComponent != null && !endpointInfo.pathItemComponent.schemaComponent.isEmpty()) {
+                endpointInfo.pathItemComponent.schemaComponent.forEach(schema -> components.addSchema(endpointInfo.pathItemComponent.componentName, schema));
+            }
+            if (!endpointInfo.additionalSchemaComponent.isEmpty()) {
+                endpointInfo.additionalSchemaComponent.forEach(components::addSchema);
+            }
+            if (endpointInfo.responseItemComponent != null && !endpointInfo.responseItemComponent.componentTypeList.isEmpty()) {
+                components.addSchema(endpointInfo.responseItemComponent.componentName, endpointInfo.responseItemComponent.componentTypeList.get(0));
+            }
+
+            Tag tag = new TagImpl();
+            tag.setName(endpointInfo.tag);
+            tags.add(tag);
+        });
+        openAPI.setInfo(info);
+        openAPI.setPaths(paths);
+        openAPI.setTags(new ArrayList<>(tags));
+        openAPI.setComponents(components);
+
+        return openAPI;
+    }
+
+    /**
+     * Construction du pathItem
+     * @param endpointInfo
+     */
+    private void buildPathItem(EndpointInfo endpointInfo) {
+        PathItem pathItem = new PathItemImpl();
+        Operation operation = new OperationImpl();
+        operation.setOperationId(endpointInfo.operationId);
+        operation.setSummary(endpointInfo.operationId);
+        operation.setDescription(endpointInfo.description);
+        operation.addTag(endpointInfo.tag);
+
+        //On ajoute tous les params dans le requestBody
+        if (!endpointInfo.requestBodyParametersMap.isEmpty() && !endpointInfo.requestParametersMap.isEmpty()) {
+            endpointInfo.requestBodyParametersMap.putAll(endpointInfo.requestParametersMap);
+            endpointInfo.requestParametersMap.clear();
+        }
+
+        if (!endpointInfo.requestBodyParametersMap.isEmpty()) {
+            RequestBody requestBody = new RequestBodyImpl();
+            requestBody.setRequired(true);
+            Content content = new ContentImpl();
+            MediaType mediaType = new MediaTypeImpl();
+            if (endpointInfo.requestBodyParametersMap.size() == 1) {
+                endpointInfo.requestBodyParametersMap.forEach((name, componentParam) -> {
+                    mediaType.setSchema(componentParam.schema);
+                });
+            } else {
+                Schema schema = new SchemaImpl();
+                String requestWrapperName = getComponentName(endpointInfo.methodName, "Request");
+                schema.setRef(ROOT_PATH_COMPONENTS_SCHEMAS + requestWrapperName);
+
+                //On construit le schema pour le wrapper request
+                Schema schemaWrapper = new SchemaImpl();
+                schemaWrapper.setType(Schema.SchemaType.OBJECT);
+                List<String> descriptionList = new ArrayList<>();
+                endpointInfo.requestBodyParametersMap.forEach((name, componentParam) -> {
+                    Optional<String> className = getClassName(componentParam.fullyQualified);
+                    className.ifPresent(descriptionList::add);
+                    schemaWrapper.addProperty(name, componentParam.schema);
+                });
+                schemaWrapper.setDescription("Wrapper for " + descriptionList);
+                endpointInfo.additionalSchemaComponent.put(requestWrapperName, schemaWrapper);
+                mediaType.setSchema(schema);
+            }
+            content.setMediaTypes(Collections.singletonMap(javax.ws.rs.core.MediaType.APPLICATION_JSON, mediaType));
+            requestBody.setContent(content);
+            operation.setRequestBody(requestBody);
+        } else if (!endpointInfo.requestParametersMap.isEmpty()) {
+            endpointInfo.requestParametersMap.forEach((name, componentParam) -> {
+                Parameter parameter = new ParameterImpl();
+                parameter.setName(name);
+                parameter.setIn(Parameter.In.QUERY);
+                LOG.info("parameters {} with type {}", name, componentParam);
+                parameter.setSchema(componentParam.schema);
+                operation.addParameter(parameter);
+            });
+        }
+
+        APIResponses apiResponses = new APIResponsesImpl();
+        APIResponse apiResponse = new APIResponseImpl();
+        if (endpointInfo.responseItemComponent == null) {
+            apiResponse.setDescription("no content");
+            apiResponses.addAPIResponse("default", apiResponse);
+            operation.setResponses(apiResponses);
+        } else {
+            apiResponse.setDescription("OK");
+            Content content = new ContentImpl();
+            MediaType mediaType = new MediaTypeImpl();
+            if (endpointInfo.responseItemComponent.fullyQualified != null || endpointInfo.responseItemComponent.componentName != null) {
+                SchemaFormat schemaFormat = SchemaTypes.format(endpointInfo.responseItemComponent.fullyQualified != null ? endpointInfo.responseItemComponent.fullyQualified : endpointInfo.responseItemComponent.componentName);
+                Schema schema = new SchemaImpl();
+                if (!schemaFormat.schemaType.equals(Schema.SchemaType.OBJECT)) {
+                    if (SchemaTypes.kind(endpointInfo.responseItemComponent.responseWrapper).isCollection()) {
+                        schema.setType(Schema.SchemaType.ARRAY);
+                        Schema schemaItem = new SchemaImpl();
+                        schemaItem.setType(schemaFormat.schemaType);
+                        schema.setItems(schemaItem);
+                        if (SchemaTypes.kind(endpointInfo.responseItemComponent.responseWrapper) == SchemaTypes.Kind.UNIQUE_COLLECTION) {
+                            schema.uniqueItems(true);
+                        }
+                    } else {
+                        schema.setType(schemaFormat.schemaType);
+                    }
+                } else {
+                    if (SchemaTypes.kind(endpointInfo.responseItemComponent.responseWrapper).isCollection()) {
+                        schema.setType(Schema.SchemaType.ARRAY);
+                        Schema schemaItem = new SchemaImpl();
+                        schemaItem.setRef(ROOT_PATH_COMPONENTS_SCHEMAS + endpointInfo.responseItemComponent.componentName);
+                        schema.setItems(schemaItem);
+                        if (SchemaTypes.kind(endpointInfo.responseItemComponent.responseWrapper) == SchemaTypes.Kind.UNIQUE_COLLECTION) {
+                            schema.uniqueItems(true);
+                        }
+                    } else {
+                        schema.setRef(ROOT_PATH_COMPONENTS_SCHEMAS + endpointInfo.responseItemComponent.componentName);
+                    }
+                }
+                mediaType.setSchema(schema);
+            } else if (!endpointInfo.responseItemComponent.componentTypeList.isEmpty()) {
+                mediaType.setSchema(endpointInfo.responseItemComponent.componentTypeList.get(0));
+                endpointInfo.responseItemComponent.componentTypeList.clear();
+            }
+            content.setMediaTypes(Collections.singletonMap(javax.ws.rs.core.MediaType.APPLICATION_JSON, mediaType));
+            apiResponse.setContent(content);
+            apiResponses.addAPIResponse(String.valueOf(HttpStatus.SC_OK), apiResponse);
+            operation.setResponses(apiResponses);
+        }
+
+        if (endpointInfo.action.equalsIgnoreCase(HttpMethod.GET)) {
+            pathItem.GET(operation);
+        } else if (endpointInfo.action.equalsIgnoreCase(HttpMethod.POST)) {
+            pathItem.POST(operation);
+        } else if (endpointInfo.action.equalsIgnoreCase(HttpMethod.PUT)) {
+            pathItem.PUT(operation);
+        } else if (endpointInfo.action.equalsIgnoreCase(HttpMethod.DELETE)) {
+            pathItem.DELETE(operation);
+        }
+
+        PathItemComponent pathItemComponent = new PathItemComponent();
+        pathItemComponent.pathItem = pathItem;
+        endpointInfo.pathItemComponent = pathItemComponent;
+    }
+
+    private void buildEndpointInfo(Map<String, String> arguments, EndpointInfo endpointInfo) {
+        arguments.forEach((simpleName, value) -> {
+            if (EndpointInfo.PATH_NAME.equals(simpleName)) {
+                endpointInfo.path = value;
+            } else if (EndpointInfo.ACTION_NAME.equals(simpleName)) {
+                endpointInfo.action = value;
+            } else if (EndpointInfo.TAG_NAME.equals(simpleName)) {
+                endpointInfo.tag = value;
+            } else if (EndpointInfo.DESCRIPTION_NAME.equals(simpleName)) {
+                endpointInfo.description = value;
+            }
+        });
+    }
+
+    private Map<String, Schema> buildSchemaForObject(ComponentParam componentParam) {
+        Map<String, Schema> schemas = schemaCache.get(componentParam.fullyQualified, fullyQualified -> schemasFromSources
+                ? JavaTypeSchemaReader.read(fullyQualified, componentParam.type, typeIndex)
+                : readSchemas(fullyQualified));
+        Optional<String> className = getClassName(componentParam.fullyQualified);
+        Map<String, Schema> schemaResultMap = new TreeMap<>();
+        schemas.forEach((key, schema) -> {
+            if (className.isPresent() && key.equalsIgnoreCase(className.get())) {
+                schemaResultMap.put(componentParam.name, schema);
+            } else {
+                schemaResultMap.put(key, schema);
+            }
+        });
+        return schemaResultMap;
+    }
+
+    /**
+     * Load the class and convert its schemas, the result is keyed by model name
+     * @param fullyQualified
+     * @return
+     */
+    private Map<String, Schema> readSchemas(String fullyQualified) {
+        LOG.info("create yaml definition for {}", fullyQualified);
+        String className = getClassName(fullyQualified).orElse(fullyQualified);
+        try {
+            Class<?> aClass = getClass().getClassLoader().loadClass(fullyQualified);
+            Map<String, Schema> schemaResultMap = new TreeMap<>();
+            synchronized (MODEL_CONVERTERS_LOCK) {
+                Map<String, io.swagger.v3.oas.models.media.Schema> schemas = ModelConverters.getInstance().readAll(aClass);
+                if (schemas != null) {
+                    //Convertis sous le verrou : les modèles résolus restent partagés par le singleton
+                    schemas.forEach((key, value) -> {
+                        Schema schema = SchemaConverter.convert(value);
+                        schema.setDescription(fullyQualified);
+                        schemaResultMap.put(key, schema);
+                    });
+                }
+            }
+            if (!schemaResultMap.isEmpty()) {
+                return schemaResultMap;
+            } else if (aClass.getEnumConstants() != null && aClass.getEnumConstants().length > 0) {
+                Schema schema = new SchemaImpl();
+                schema.setType(Schema.SchemaType.STRING);
+                schema.setEnumeration(Arrays.stream(aClass.getEnumConstants()).map(Object::toString).collect(Collectors.toList()));
+                return Collections.singletonMap(className, schema);
+            } else {
+                SchemaFormat schemaFormat = SchemaTypes.format(fullyQualified);
+                return Collections.singletonMap(className, getSchema(schemaFormat.schemaType, schemaFormat.format));
+            }
+        } catch (ClassNotFoundException e) {
+            LOG.error("ClassNotFoundException, Error while create schema for object " + fullyQualified + ".\n -> Add this class to dependency in rewrite-maven-plugin");
+            SchemaFormat schemaFormat = SchemaTypes.format(fullyQualified);
+            if (schemaFormat.schemaType != null) {
+                return Collections.singletonMap(className, getSchema(schemaFormat.schemaType, schemaFormat.format));
+            }
+        }
+        return Collections.emptyMap();
+    }
+
+    private Schema getSchema(Schema.SchemaType schemaType, String format) {
+        Schema schema = new SchemaImpl();
+        schema.setType(schemaType);
+        if (format != null) {
+            schema.setFormat(format);
+        }
+        return schema;
+    }
+
+    /**
+     *
+     * @param fullyQualifiedName
+     * @return
+     */
+    private Optional<String> getClassName(String fullyQualifiedName) {
+        return Optional.ofNullable(fullyQualifiedName).map(SchemaTypes::className);
+    }
+
+    private String toDashCase(final String value) {
+        String regex = "(?=[A-Z][a-z])";
+        String subst = "-";
+        Pattern pattern = Pattern.compile(regex);
+        Matcher matcher = pattern.matcher(value);
+        String result = matcher.replaceAll(subst);
+        return result.toLowerCase();
+    }
+
+    private String getComponentName(final String value, final String suffix) {
+        return RewriteUtils.firstUpperCase(value + suffix);
+    }
+
+    static class AppInfo {
+        String appName;
+
+        String appDescription;
+
+        String appVersion;
+
+        AppInfo(final String appName, final String appDescription, final String version) {
+            this.appName = appName;
+            this.appDescription = appDescription;
+            this.appVersion = version;
+        }
+    }
+
+    static class EndpointInfo {
+
+        final static String PATH_NAME = "path";
+
+        final static String TAG_NAME = "tag";
+
+        final static String DESCRIPTION_NAME = "description";
+
+        final static String ACTION_NAME = "action";
+
+        String path;
+
+        String tag;
+
+        String description;
+
+        String action;
+
+        String operationId;
+
+        String methodName;
+
+        Map<String, ComponentParam> requestParametersMap = new HashMap<>();
+
+        Map<String, ComponentParam> requestBodyParametersMap = new HashMap<>();
+
+        ResponseItemComponent responseItemComponent;
+
+        PathItemComponent pathItemComponent;
+
+        Map<String, Schema> additionalSchemaComponent = new TreeMap<>();
+
+    }
+
+    static class ComponentParam {
+        String fullyQualified;
+
+        JavaType type;
+
+        Schema schema;
+
+        String name;
+    }
+
+    static class ResponseItemComponent {
+
+        String fullyQualified;
+
+        String componentName;
+
+        List<Schema> componentTypeList = new ArrayList<>();
+
+        String responseWrapper;
+
+    }
+
+    static class PathItemComponent {
+
+        PathItem pathItem;
+
+        List<Schema> schemaComponent;
+
+        String componentName;
+
+    }
+
+    static class SchemaFormat {
+
+        final Schema.SchemaType schemaType;
+
+        final String format;
+
+        SchemaFormat(Schema.SchemaType schemaType, String format) {
+            this.schemaType = schemaType;
+            this.format = format;
+        }
+    }
+
+    static class InheritanceInfo {
+
+        Set<String> subtypes = new TreeSet<>();
+
+        String fullyQualifiedSuperClass;
+
+        boolean isInterface;
+    }
+
+    /**
+     * Result of buildObjectSchema for a type: what it sets on the schema and the components it adds
+     */
+    static class BuiltSchema {
+
+        String ref;
+
+        Schema.SchemaType type;
+
+        String format;
+
+        Map<String, Schema> components;
+
+        BuiltSchema(Schema schema, Map<String, Schema> components) {
+            this.ref = schema.getRef();
+            this.type = schema.getType();
+            this.format = schema.getFormat();
+            this.components = components;
+        }
+
+        /**
+         * The components are copied, the YAML dump would write a schema met twice as an alias
+         */
+        void copyTo(Schema schema, Map<String, Schema> additionalSchemaComponent) {
+            if (ref != null) {
+                schema.setRef(ref);
+            }
+            if (type != null) {
+                schema.setType(type);
+            }
+            if (format != null) {
+                schema.setFormat(format);
+            }
+            components.forEach((name, component) -> additionalSchemaComponent.put(name, SchemaConverter.copy(component)));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.refactor.eap6.java.ejb;
+
+import org.openrewrite.internal.lang.Nullable;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Operation ids and paths already used in a contract, or in a merged document.
+ * An overloaded method gets the number of its previous overloads as suffix, increased while the suffixed
+ * operation id or path is still taken, so every operation of the contract stays unique.
+ */
+class OperationRegistry {
+
+    private final Map<String, Integer> overloads = new HashMap<>();
+
+    private final Set<String> operationIds = new HashSet<>();
+
+    private final Set<String> paths = new HashSet<>();
+
+    /**
+     * Suffix the names of the endpoint when they clash with an already registered one, then register it
+     *
+     * @param endpointInfo
+     */
+    void register(OpenApiContractBuilder.EndpointInfo endpointInfo) {
+        int suffix = register(endpointInfo.methodName, endpointInfo.operationId, endpointInfo.path);
+        if (suffix > 0) {
+            endpointInfo.methodName = endpointInfo.methodName + suffix;
+            endpointInfo.operationId = endpointInfo.operationId + suffix;
+            if (endpointInfo.path != null) {
+                endpointInfo.path = endpointInfo.path + suffix;
+            }
+            if (endpointInfo.description != null) {
+                endpointInfo.description = endpointInfo.description + suffix;
+            }
+        }
+    }
+
+    /**
+     * Register the operation id and the path, with the suffix avoiding an already registered one
+     *
+     * @param name        name whose overloads are counted
+     * @param operationId
+     * @param path        null when the operation has no path of its own
+     * @return the suffix to append to the operation id and the path, 0 when they are not taken
+     */
+    int register(String name, String operationId, @Nullable String path) {
+        int suffix = overloads.merge(name.toLowerCase(Locale.ROOT), 1, Integer::sum) - 1;
+        while (isTaken(operationId, path, suffix)) {
+            suffix++;
+        }
+        String suffixValue = suffix > 0 ? String.valueOf(suffix) : "";
+        operationIds.add((operationId + suffixValue).toLowerCase(Locale.ROOT));
+        if (path != null) {
+            paths.add(path + suffixValue);
+        }
+        return suffix;
+    }
+
+    private boolean isTaken(String operationId, @Nullable String path, int suffix) {
+        String suffixValue = suffix > 0 ? String.valueOf(suffix) : "";
+        return operationIds.contains((operationId + suffixValue).toLowerCase(Locale.ROOT))
+                || (path != null && paths.contains(path + suffixValue));
+    }
+}
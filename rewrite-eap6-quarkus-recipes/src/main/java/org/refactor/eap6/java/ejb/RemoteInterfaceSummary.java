@@ -0,0 +1,141 @@
+package org.refactor.eap6.java.ejb;
+
+import lombok.Value;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.tree.Expression;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.Statement;
+import org.openrewrite.java.tree.TypeTree;
+
+import java.util.*;
+
+/**
+ * What a contract is built from: the signatures of the methods of a remote interface and their {@code @ToRest} arguments.
+ * Only the type expressions of the signatures are kept, not the declaration tree.
+ */
+@Value
+class RemoteInterfaceSummary {
+
+    String fullyQualifiedName;
+
+    String simpleName;
+
+    List<MethodSummary> methods;
+
+    @Value
+    static class MethodSummary {
+
+        String name;
+
+        @Nullable
+        TypeTree returnTypeExpression;
+
+        List<ParameterSummary> parameters;
+
+        /**
+         * Arguments of {@code @ToRest} by name, null when the method is not annotated
+         */
+        @Nullable
+        Map<String, String> toRestArguments;
+    }
+
+    @Value
+    static class ParameterSummary {
+
+        String name;
+
+        TypeTree typeExpression;
+    }
+
+    /**
+     * @param remoteInterfaces
+     * @return the packages of the types of the signatures and of the types they reach through their fields,
+     * supertypes and type arguments, the JDK packages excluded
+     */
+    static Set<String> referencedPackages(Collection<RemoteInterfaceSummary> remoteInterfaces) {
+        Set<String> packages = new TreeSet<>();
+        Set<String> visited = new HashSet<>();
+        for (RemoteInterfaceSummary remoteInterface : remoteInterfaces) {
+            for (MethodSummary method : remoteInterface.getMethods()) {
+                if (method.getReturnTypeExpression() != null) {
+                    collectPackages(method.getReturnTypeExpression().getType(), packages, visited);
+                }
+                method.getParameters().forEach(parameter -> collectPackages(parameter.getTypeExpression().getType(), packages, visited));
+            }
+        }
+        return packages;
+    }
+
+    private static void collectPackages(@Nullable JavaType type, Set<String> packages, Set<String> visited) {
+        if (type instanceof JavaType.Array) {
+            collectPackages(((JavaType.Array) type).getElemType(), packages, visited);
+        } else if (type instanceof JavaType.GenericTypeVariable) {
+            ((JavaType.GenericTypeVariable) type).getBounds().forEach(bound -> collectPackages(bound, packages, visited));
+        } else if (type instanceof JavaType.FullyQualified && !(type instanceof JavaType.Unknown)) {
+            JavaType.FullyQualified fullyQualified = (JavaType.FullyQualified) type;
+            if (fullyQualified instanceof JavaType.Parameterized) {
+                fullyQualified.getTypeParameters().forEach(argument -> collectPackages(argument, packages, visited));
+                fullyQualified = ((JavaType.Parameterized) fullyQualified).getType();
+            }
+            String fullyQualifiedName = fullyQualified.getFullyQualifiedName();
+            if (fullyQualifiedName.startsWith("java.") || fullyQualifiedName.startsWith("javax.") || !visited.add(fullyQualifiedName)) {
+                return;
+            }
+            packages.add(fullyQualified.getPackageName());
+            collectPackages(fullyQualified.getSupertype(), packages, visited);
+            fullyQualified.getInterfaces().forEach(anInterface -> collectPackages(anInterface, packages, visited));
+            fullyQualified.getMembers().forEach(member -> collectPackages(member.getType(), packages, visited));
+        }
+    }
+
+    static RemoteInterfaceSummary of(String fullyQualifiedName, J.ClassDeclaration classDecl) {
+        List<MethodSummary> methods = new ArrayList<>();
+        for (Statement statement : classDecl.getBody().getStatements()) {
+            if (statement instanceof J.MethodDeclaration) {
+                methods.add(methodSummary((J.MethodDeclaration) statement));
+            }
+        }
+        return new RemoteInterfaceSummary(fullyQualifiedName, classDecl.getSimpleName(), Collections.unmodifiableList(methods));
+    }
+
+    private static MethodSummary methodSummary(J.MethodDeclaration method) {
+        List<ParameterSummary> parameters = new ArrayList<>();
+        for (Statement parameter : method.getParameters()) {
+            if (parameter instanceof J.VariableDeclarations) {
+                J.VariableDeclarations variableDeclarations = (J.VariableDeclarations) parameter;
+                parameters.add(new ParameterSummary(variableDeclarations.getVariables().get(0).getSimpleName(), variableDeclarations.getTypeExpression()));
+            }
+        }
+        Map<String, String> toRestArguments = method.getLeadingAnnotations().stream()
+                .filter(annotation -> annotation.getSimpleName().equals("ToRest"))
+                .findFirst()
+                .map(RemoteInterfaceSummary::arguments)
+                .orElse(null);
+        return new MethodSummary(method.getSimpleName(), method.getReturnTypeExpression(), Collections.unmodifiableList(parameters), toRestArguments);
+    }
+
+    /**
+     * @param annotation
+     * @return the value of each {@code name = value} argument: a literal, or the name of a constant
+     */
+    private static Map<String, String> arguments(J.Annotation annotation) {
+        Map<String, String> arguments = new LinkedHashMap<>();
+        if (annotation.getArguments() != null) {
+            for (Expression argument : annotation.getArguments()) {
+                if (argument instanceof J.Assignment && ((J.Assignment) argument).getVariable() instanceof J.Identifier) {
+                    J.Assignment assignment = (J.Assignment) argument;
+                    Expression value = assignment.getAssignment();
+                    String text = null;
+                    if (value instanceof J.Literal) {
+                        text = String.valueOf(((J.Literal) value).getValue());
+                    } else if (value instanceof J.FieldAccess) {
+                        text = ((J.FieldAccess) value).getSimpleName();
+                    }
+                    arguments.put(((J.Identifier) assignment.getVariable()).getSimpleName(), text);
+                }
+            }
+        }
+        return Collections.unmodifiableMap(arguments);
+    }
+}
@@ -0,0 +1,73 @@
+package org.refactor.eap6.java.ejb;
+
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.refactor.eap6.yaml.util.SchemaConverter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Size-bounded cache of the converted MicroProfile schemas, keyed by fully qualified class name.
+ * It lives as long as the recipe run, so a DTO shared by several methods or remote interfaces is only
+ * loaded and converted once. Callers always get a copy they are free to modify.
+ */
+class SchemaCache {
+
+    static final int MAXIMUM_SIZE = 2048;
+
+    private final Map<String, Map<String, Schema>> schemas;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    SchemaCache() {
+        this(MAXIMUM_SIZE);
+    }
+
+    SchemaCache(int maximumSize) {
+        this.schemas = new LinkedHashMap<String, Map<String, Schema>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<String, Schema>> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * @param fullyQualifiedName
+     * @param loader             called on a cache miss to build the schemas
+     * @return a copy of the schemas of the class
+     */
+    Map<String, Schema> get(String fullyQualifiedName, Function<String, Map<String, Schema>> loader) {
+        Map<String, Schema> cached;
+        synchronized (schemas) {
+            cached = schemas.get(fullyQualifiedName);
+        }
+        if (cached != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            cached = loader.apply(fullyQualifiedName);
+            synchronized (schemas) {
+                schemas.put(fullyQualifiedName, cached);
+            }
+        }
+        return copy(cached);
+    }
+
+    private static Map<String, Schema> copy(Map<String, Schema> schemas) {
+        Map<String, Schema> copy = new LinkedHashMap<>();
+        schemas.forEach((key, value) -> copy.put(key, SchemaConverter.copy(value)));
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        synchronized (schemas) {
+            return "SchemaCache{size=" + schemas.size() + ", hits=" + hits.get() + ", misses=" + misses.get() + "}";
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.refactor.eap6.java.ejb;
+
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.TypeUtils;
+import org.refactor.eap6.java.ejb.OpenApiContractBuilder.SchemaFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * OpenAPI classification of the java types, read from tables built once.
+ * Type and format are looked up by fully qualified name or primitive keyword. Collections and maps are looked up
+ * by fully qualified name when the type is attributed, by simple name, case insensitive, otherwise.
+ */
+final class SchemaTypes {
+
+    enum Kind {
+        COLLECTION, UNIQUE_COLLECTION, MAP, OTHER;
+
+        boolean isCollection() {
+            return this == COLLECTION || this == UNIQUE_COLLECTION;
+        }
+    }
+
+    private static final SchemaFormat OBJECT = new SchemaFormat(Schema.SchemaType.OBJECT, null);
+
+    private static final Map<String, SchemaFormat> formats = new HashMap<>();
+
+    private static final Map<String, Kind> kindsByName = new HashMap<>();
+
+    private static final Map<String, Kind> kindsBySimpleName = new HashMap<>();
+
+    static {
+        formats.put(JavaType.Primitive.Void.getKeyword(), new SchemaFormat(null, null));
+        addFormat(Schema.SchemaType.STRING, null, JavaType.Primitive.String.getKeyword(), String.class.getName());
+        addFormat(Schema.SchemaType.BOOLEAN, null, JavaType.Primitive.Boolean.getKeyword(), Boolean.class.getName());
+        addFormat(Schema.SchemaType.STRING, "date", Date.class.getName(), LocalDate.class.getName());
+        addFormat(Schema.SchemaType.STRING, "date-time", LocalTime.class.getName(), LocalDateTime.class.getName(), OffsetDateTime.class.getName());
+        addFormat(Schema.SchemaType.INTEGER, "int64", JavaType.Primitive.Long.getKeyword(), Long.class.getName());
+        addFormat(Schema.SchemaType.INTEGER, "int32", JavaType.Primitive.Int.getKeyword(), Integer.class.getName());
+        addFormat(Schema.SchemaType.NUMBER, "double", JavaType.Primitive.Float.getKeyword(), JavaType.Primitive.Double.getKeyword(),
+                JavaType.Primitive.Short.getKeyword(), Float.class.getName(), Double.class.getName(), Short.class.getName(),
+                BigDecimal.class.getName());
+
+        addKind(Kind.COLLECTION, List.class, Collection.class, ArrayList.class, Vector.class, LinkedList.class, Stack.class);
+        addKind(Kind.UNIQUE_COLLECTION, Set.class, SortedSet.class, HashSet.class, TreeSet.class, LinkedHashSet.class);
+        addKind(Kind.MAP, Map.class, HashMap.class, LinkedHashMap.class, TreeMap.class, Hashtable.class, ConcurrentHashMap.class,
+                ConcurrentMap.class, ConcurrentSkipListMap.class, EnumMap.class, SortedMap.class, NavigableMap.class);
+    }
+
+    private SchemaTypes() {
+    }
+
+    private static void addFormat(Schema.SchemaType schemaType, @Nullable String format, String... types) {
+        SchemaFormat schemaFormat = new SchemaFormat(schemaType, format);
+        for (String type : types) {
+            formats.put(type, schemaFormat);
+        }
+    }
+
+    private static void addKind(Kind kind, Class<?>... types) {
+        for (Class<?> type : types) {
+            kindsByName.put(type.getName(), kind);
+            kindsBySimpleName.put(type.getSimpleName().toLowerCase(Locale.ROOT), kind);
+        }
+    }
+
+    /**
+     * @param type fully qualified name or primitive keyword
+     * @return the OpenAPI type and format, OBJECT for any other type, no type for void
+     */
+    static SchemaFormat format(String type) {
+        return formats.getOrDefault(type, OBJECT);
+    }
+
+    static SchemaFormat format(@Nullable JavaType type) {
+        if (type instanceof JavaType.Primitive) {
+            return format(((JavaType.Primitive) type).getKeyword());
+        }
+        JavaType.FullyQualified fullyQualified = TypeUtils.asFullyQualified(type);
+        return fullyQualified == null ? OBJECT : format(fullyQualified.getFullyQualifiedName());
+    }
+
+    /**
+     * @param type       attributed type, the simple name is used when it is missing, unknown or without package (not imported)
+     * @param simpleName
+     * @return the kind of the type
+     */
+    static Kind kind(@Nullable JavaType type, @Nullable String simpleName) {
+        JavaType.FullyQualified fullyQualified = TypeUtils.asFullyQualified(type);
+        if (fullyQualified != null && !(fullyQualified instanceof JavaType.Unknown)
+                && fullyQualified.getFullyQualifiedName().indexOf('.') > 0) {
+            return kindsByName.getOrDefault(fullyQualified.getFullyQualifiedName(), Kind.OTHER);
+        }
+        return kind(simpleName != null ? simpleName : fullyQualified != null ? fullyQualified.getClassName() : null);
+    }
+
+    static Kind kind(@Nullable String simpleName) {
+        return simpleName == null ? Kind.OTHER : kindsBySimpleName.getOrDefault(simpleName.toLowerCase(Locale.ROOT), Kind.OTHER);
+    }
+
+    /**
+     * @param fullyQualifiedName
+     * @return the name without its package, nested classes separated by a dot
+     */
+    static String className(String fullyQualifiedName) {
+        return fullyQualifiedName.substring(fullyQualifiedName.lastIndexOf('.') + 1).replace('$', '.');
+    }
+}
@@ -0,0 +1,153 @@
+package org.refactor.eap6.java.ejb;
+
+import org.reflections.Reflections;
+import org.reflections.scanners.Scanners;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Subtype hierarchy shared by a whole recipe run.
+ * Direct subtypes come from the scanned sources and from a single classpath scan per package root,
+ * subpackages included. Every root is scanned before the contracts are built, then the hierarchy is frozen:
+ * the subtypes of a type do not depend on the order the contracts are built in.
+ * The transitive subtypes of a type are computed once and then served from cache.
+ */
+class TypeHierarchy {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TypeHierarchy.class);
+
+    private final Map<String, Set<String>> directSubtypes = new HashMap<>();
+
+    private final Map<String, Boolean> interfaces = new HashMap<>();
+
+    private final Set<String> sourcePackages = new HashSet<>();
+
+    private final Set<String> scannedPackages = new HashSet<>();
+
+    private final Map<String, Set<String>> subtypesCache = new HashMap<>();
+
+    private boolean frozen;
+
+    /**
+     * Record a type declared in the scanned sources, the types scanned again by a later cycle are ignored once frozen
+     *
+     * @param type
+     */
+    synchronized void add(TypeSummary type) {
+        if (frozen) {
+            return;
+        }
+        String fullyQualifiedName = type.getFullyQualifiedName();
+        interfaces.put(fullyQualifiedName, type.isInterface());
+        if (!type.getPackageName().isEmpty()) {
+            sourcePackages.add(type.getPackageName());
+        }
+        if (type.getSupertype() != null) {
+            addSubtype(type.getSupertype(), fullyQualifiedName);
+        }
+        for (String anInterface : type.getInterfaces()) {
+            addSubtype(anInterface, fullyQualifiedName);
+        }
+    }
+
+    /**
+     * Scan the classpath once for the packages of the sources and the requested packages, then freeze the hierarchy.
+     * Called before the contracts are built in parallel, once per run.
+     *
+     * @param requestedPackages packages of the types whose subtypes may be asked for
+     */
+    synchronized void scanAndFreeze(Collection<String> requestedPackages) {
+        if (frozen) {
+            return;
+        }
+        for (String root : rootsToScan(requestedPackages)) {
+            scannedPackages.add(root);
+            scanClasspath(root).forEach((supertype, subtypes) -> subtypes.forEach(subtype -> addSubtype(supertype, subtype)));
+        }
+        frozen = true;
+    }
+
+    /**
+     * @param fullyQualifiedName
+     * @return all the subtypes, direct or not, sorted by name
+     */
+    synchronized Set<String> getSubTypesOf(String fullyQualifiedName) {
+        return Collections.unmodifiableSet(subtypesCache.computeIfAbsent(fullyQualifiedName, this::collectSubtypes));
+    }
+
+    synchronized boolean isInterface(String fullyQualifiedName) {
+        Boolean isInterface = interfaces.get(fullyQualifiedName);
+        if (isInterface == null) {
+            try {
+                isInterface = getClass().getClassLoader().loadClass(fullyQualifiedName).isInterface();
+            } catch (ClassNotFoundException e) {
+                LOG.error("Cannot load class {}", fullyQualifiedName);
+                isInterface = false;
+            }
+            interfaces.put(fullyQualifiedName, isInterface);
+        }
+        return isInterface;
+    }
+
+    private void addSubtype(String supertype, String subtype) {
+        if (directSubtypes.computeIfAbsent(supertype, k -> new HashSet<>()).add(subtype)) {
+            subtypesCache.clear();
+        }
+    }
+
+    private Set<String> collectSubtypes(String fullyQualifiedName) {
+        Set<String> result = new TreeSet<>();
+        Deque<String> toVisit = new ArrayDeque<>(directSubtypes.getOrDefault(fullyQualifiedName, Collections.emptySet()));
+        while (!toVisit.isEmpty()) {
+            String subtype = toVisit.pop();
+            if (result.add(subtype)) {
+                toVisit.addAll(directSubtypes.getOrDefault(subtype, Collections.emptySet()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param requestedPackages
+     * @return the package roots to scan in name order, none of them a subpackage of another
+     */
+    private List<String> rootsToScan(Collection<String> requestedPackages) {
+        Set<String> packages = new TreeSet<>(sourcePackages);
+        packages.addAll(requestedPackages);
+        packages.remove("");
+        List<String> roots = new ArrayList<>();
+        for (String aPackage : packages) {
+            if (!isScanned(aPackage) && roots.stream().noneMatch(root -> isSubPackage(aPackage, root))) {
+                roots.add(aPackage);
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * @param root
+     * @return the direct subtypes found in the package and its subpackages, by supertype
+     */
+    private static Map<String, Set<String>> scanClasspath(String root) {
+        Reflections reflections = new Reflections(new ConfigurationBuilder()
+                .forPackages(root)
+                .filterInputsBy(new FilterBuilder().includePackage(root))
+                .setScanners(Scanners.SubTypes.filterResultsBy(s -> true)));
+        Map<String, Set<String>> subtypesBySupertype = reflections.getStore()
+                .getOrDefault(Scanners.SubTypes.index(), Collections.emptyMap());
+        LOG.info("Subtypes scanned on classpath for package {}", root);
+        return subtypesBySupertype;
+    }
+
+    private boolean isScanned(String packageName) {
+        return scannedPackages.stream().anyMatch(root -> isSubPackage(packageName, root));
+    }
+
+    private static boolean isSubPackage(String packageName, String root) {
+        return packageName.equals(root) || packageName.startsWith(root + ".");
+    }
+}
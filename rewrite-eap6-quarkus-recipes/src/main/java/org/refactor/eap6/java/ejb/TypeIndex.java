@@ -0,0 +1,50 @@
+package org.refactor.eap6.java.ejb;
+
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.tree.J;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Index of the type declarations met while scanning the sources, keyed by fully qualified name.
+ * Lookups are done in constant time instead of searching every compilation unit,
+ * and only a summary of each declaration is retained.
+ */
+class TypeIndex {
+
+    private final Map<String, TypeSummary> declarations = new HashMap<>();
+
+    /**
+     * Index every class declaration (nested ones included) of the compilation unit
+     *
+     * @param compilationUnit
+     * @return the types declared in the compilation unit
+     */
+    List<TypeSummary> index(J.CompilationUnit compilationUnit) {
+        List<TypeSummary> declaredTypes = new ArrayList<>();
+        new JavaIsoVisitor<List<TypeSummary>>() {
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, List<TypeSummary> types) {
+                TypeSummary summary = TypeSummary.of(classDecl);
+                if (summary != null) {
+                    declarations.put(summary.getFullyQualifiedName(), summary);
+                    types.add(summary);
+                }
+                return super.visitClassDeclaration(classDecl, types);
+            }
+        }.visit(compilationUnit, declaredTypes);
+        return declaredTypes;
+    }
+
+    Optional<TypeSummary> find(String fullyQualifiedName) {
+        return Optional.ofNullable(declarations.get(fullyQualifiedName));
+    }
+
+    int size() {
+        return declarations.size();
+    }
+}
@@ -0,0 +1,117 @@
+package org.refactor.eap6.java.ejb;
+
+import lombok.Value;
+import org.openrewrite.java.tree.Expression;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.Statement;
+import org.openrewrite.java.tree.TypeUtils;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.util.*;
+
+/**
+ * What the recipe keeps of a scanned type declaration: its name, supertypes, fields and annotations.
+ * The declaration tree itself is not retained once the summary is built.
+ */
+@Value
+class TypeSummary {
+
+    String fullyQualifiedName;
+
+    /**
+     * Attributed type of the declaration, its members give the properties of a DTO without loading the class
+     */
+    JavaType.FullyQualified type;
+
+    String simpleName;
+
+    String packageName;
+
+    boolean isInterface;
+
+    @Nullable
+    String supertype;
+
+    List<String> interfaces;
+
+    /**
+     * Instance fields by name, in declaration order
+     */
+    Map<String, JavaType> fields;
+
+    List<String> annotations;
+
+    /**
+     * Names given by {@code @JsonProperty} to the instance fields, by field name
+     */
+    Map<String, String> propertyNames;
+
+    @Nullable
+    static TypeSummary of(J.ClassDeclaration classDecl) {
+        JavaType.FullyQualified type = TypeUtils.asFullyQualified(classDecl.getType());
+        if (type == null) {
+            return null;
+        }
+        List<String> interfaces = new ArrayList<>();
+        type.getInterfaces().forEach(anInterface -> interfaces.add(anInterface.getFullyQualifiedName()));
+
+        Map<String, JavaType> fields = new LinkedHashMap<>();
+        Map<String, String> propertyNames = new LinkedHashMap<>();
+        for (Statement statement : classDecl.getBody().getStatements()) {
+            if (statement instanceof J.VariableDeclarations && !((J.VariableDeclarations) statement).hasModifier(J.Modifier.Type.Static)) {
+                J.VariableDeclarations variableDeclarations = (J.VariableDeclarations) statement;
+                String propertyName = jsonPropertyName(variableDeclarations);
+                variableDeclarations.getVariables().forEach(variable -> {
+                    fields.put(variable.getSimpleName(), variable.getType());
+                    if (propertyName != null) {
+                        propertyNames.put(variable.getSimpleName(), propertyName);
+                    }
+                });
+            }
+        }
+
+        List<String> annotations = new ArrayList<>();
+        classDecl.getLeadingAnnotations().forEach(annotation -> {
+            JavaType.FullyQualified annotationType = TypeUtils.asFullyQualified(annotation.getType());
+            annotations.add(annotationType != null ? annotationType.getFullyQualifiedName() : annotation.getSimpleName());
+        });
+
+        return new TypeSummary(type.getFullyQualifiedName(),
+                type,
+                classDecl.getSimpleName(),
+                type.getPackageName(),
+                type.getKind() == JavaType.FullyQualified.Kind.Interface,
+                type.getSupertype() != null ? type.getSupertype().getFullyQualifiedName() : null,
+                Collections.unmodifiableList(interfaces),
+                Collections.unmodifiableMap(fields),
+                Collections.unmodifiableList(annotations),
+                Collections.unmodifiableMap(propertyNames));
+    }
+
+    /**
+     * @param variableDeclarations
+     * @return the name given by {@code @JsonProperty("name")} or {@code @JsonProperty(value = "name")}, null otherwise
+     */
+    @Nullable
+    private static String jsonPropertyName(J.VariableDeclarations variableDeclarations) {
+        for (J.Annotation annotation : variableDeclarations.getLeadingAnnotations()) {
+            if (!annotation.getSimpleName().equals("JsonProperty") || annotation.getArguments() == null) {
+                continue;
+            }
+            for (Expression argument : annotation.getArguments()) {
+                Expression value = argument;
+                if (argument instanceof J.Assignment) {
+                    J.Assignment assignment = (J.Assignment) argument;
+                    value = assignment.getVariable() instanceof J.Identifier
+                            && ((J.Identifier) assignment.getVariable()).getSimpleName().equals("value") ? assignment.getAssignment() : null;
+                }
+                if (value instanceof J.Literal && ((J.Literal) value).getValue() instanceof String
+                        && !((String) ((J.Literal) value).getValue()).isEmpty()) {
+                    return (String) ((J.Literal) value).getValue();
+                }
+            }
+        }
+        return null;
+    }
+}
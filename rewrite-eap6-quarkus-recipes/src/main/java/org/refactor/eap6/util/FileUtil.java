@@ -50,20 +50,6 @@ public class FileUtil {
         return sourceFile.withSourcePath(Paths.get(relativeFilePath));
     }
 
-    public void createFile(final String filename, final String content) {
-        try {
-            File file = new File(filename);
-            Files.createDirectories(Paths.get(file.getParent()));
-
-            FileOutputStream os = new FileOutputStream(file);
-            try (BufferedWriter bufferWriter = new BufferedWriter(new OutputStreamWriter(os))) {
-                bufferWriter.write(content);
-            }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
     public static void addToStatistics(String recipe, String targetClass, Duration duration) {
         try (CSVPrinter printer = new CSVPrinter(Files.newBufferedWriter(Paths.get("statistics.csv"), StandardOpenOption.APPEND, StandardOpenOption.CREATE), CSVFormat.DEFAULT)) {
             printer.printRecord(recipe, targetClass, duration.getSeconds());
@@ -6,6 +6,7 @@ import lombok.Value;
 import org.refactor.eap6.yaml.propstoyaml.Props2YAML;
 import org.openrewrite.*;
 import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.properties.tree.Properties;
 import org.openrewrite.yaml.MergeYamlVisitor;
 import org.openrewrite.yaml.YamlIsoVisitor;
 import org.openrewrite.yaml.tree.Yaml;
@@ -15,7 +16,7 @@ import org.slf4j.LoggerFactory;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.time.Duration;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -45,7 +46,7 @@ public class ConvertPropsToYaml extends ScanningRecipe<ConvertPropsToYaml.Scanne
     }
 
     static class Scanned {
-        private final Map<String, String> propertiesMap = new HashMap<>();
+        private final Map<String, String> propertiesMap = new LinkedHashMap<>();
     }
 
     @Override
@@ -60,12 +61,13 @@ public class ConvertPropsToYaml extends ScanningRecipe<ConvertPropsToYaml.Scanne
 
             @Override
             public @Nullable Tree visit(@Nullable Tree tree, ExecutionContext executionContext) {
-                if (tree instanceof SourceFile) {
-                    SourceFile sourceFile = (SourceFile) tree;
-                    Path sourcePath = sourceFile.getSourcePath();
+                if (tree instanceof Properties.File) {
+                    Properties.File propertiesFile = (Properties.File) tree;
+                    Path sourcePath = propertiesFile.getSourcePath();
                     PathMatcher pathMatcher = sourcePath.getFileSystem().getPathMatcher("regex:.*.properties");
                     if (pathMatcher.matches(sourcePath)) {
-                        Props2YAML props2YAML = Props2YAML.fromFile(sourcePath.toFile());
+                        //Les entrées du LST sont converties directement, le fichier n'est pas relu
+                        Props2YAML props2YAML = Props2YAML.fromProperties(propertiesFile);
                         String yaml = props2YAML.convert();
                         acc.propertiesMap.put(sourcePath.toString(), yaml);
                         return tree;
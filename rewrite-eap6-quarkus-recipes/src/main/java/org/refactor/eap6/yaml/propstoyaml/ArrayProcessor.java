@@ -1,9 +1,6 @@
 package org.refactor.eap6.yaml.propstoyaml;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -21,27 +18,31 @@ class ArrayProcessor {
         return process(tree);
     }
 
+    /**
+     * The indexed entries of a label are gathered by index, then written as a single list, the missing indexes are null.
+     * The list takes the place of its first entry and keeps the comments of all of them.
+     */
     private PropertyTree process(final PropertyTree root) {
         final PropertyTree result = new PropertyTree();
-        final Map<String, List<Object>> entriesFromList = new HashMap<>();
-        root.entrySet().stream().forEach((entry) -> {
-            Matcher matcher = pattern.matcher(entry.getKey());
+        final Map<String, SortedMap<Integer, Object>> entriesFromList = new HashMap<>();
+        root.forEach((key, value) -> {
+            Matcher matcher = pattern.matcher(key);
             if (matcher.find()) {
                 String label = matcher.group(1);
                 int index = Integer.parseInt(matcher.group(2));
-                entriesFromList.put(label, processListElement(entriesFromList.get(label), entry.getValue(), index));
+                if (!entriesFromList.containsKey(label)) {
+                    entriesFromList.put(label, new TreeMap<>());
+                    result.put(label, null);
+                }
+                entriesFromList.get(label).put(index, getValue(value));
+                result.addComments(label, root.getComments(key));
             } else {
-                result.put(entry.getKey(), getValue(entry.getValue()));
+                result.put(key, getValue(value));
+                result.addComments(key, root.getComments(key));
             }
         });
-        result.putAll(entriesFromList);
-        return result;
-    }
-
-    private List<Object> processListElement(final List<Object> elements, final Object value, final int index) {
-        List<Object> result = elements == null ? new ArrayList<>() : new ArrayList<>(elements);
-        adjustArray(index, result);
-        result.add(index, getValue(value));
+        entriesFromList.forEach((label, elements) -> result.put(label, toList(elements)));
+        result.addTrailingComments(root.getTrailingComments());
         return result;
     }
 
@@ -49,11 +50,9 @@ class ArrayProcessor {
         return value instanceof PropertyTree ? process((PropertyTree) value) : value;
     }
 
-    private void adjustArray(final int index, List<Object> elementList) {
-        if (elementList.size() < index) {
-            for (int i = elementList.size(); i < index; i++) {
-                elementList.add(i, null);
-            }
-        }
+    private static List<Object> toList(SortedMap<Integer, Object> elements) {
+        List<Object> result = new ArrayList<>(Collections.nCopies(elements.lastKey() + 1, null));
+        elements.forEach(result::set);
+        return result;
     }
 }
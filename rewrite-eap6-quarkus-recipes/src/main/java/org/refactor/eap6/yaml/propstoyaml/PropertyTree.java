@@ -1,11 +1,22 @@
 package org.refactor.eap6.yaml.propstoyaml;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.TreeMap;
+import java.io.Writer;
+import java.util.*;
 
-public class PropertyTree extends TreeMap<String, Object> {
+/**
+ * The keys keep the order of the properties. The comments of a property are kept on the first key it adds to the tree.
+ */
+public class PropertyTree extends LinkedHashMap<String, Object> {
+
+    /**
+     * Comment lines written before a key, without their delimiter
+     */
+    private final Map<String, List<String>> comments = new HashMap<>();
+
+    /**
+     * Comment lines written after the last key
+     */
+    private final List<String> trailingComments = new ArrayList<>();
 
     public PropertyTree() {
     }
@@ -14,58 +25,117 @@ public class PropertyTree extends TreeMap<String, Object> {
         put(key, value);
     }
 
-    public void appendBranchFromKeyValue(List<String> keyPath, Object value) {
-        appendBranch(new TreeBranchBuilder(keyPath, value).build());
+    public void insert(List<String> keyPath, Object value) {
+        insert(keyPath, value, Collections.emptyList());
     }
 
-    private void appendBranch(PropertyTree branchTree) {
-        branchTree.forEach((key, value) -> {
-            Optional<PropertyTree> removedBranch = removeMixedTypedBranch(key, value);
-            merge(key, value, (root, branch) -> resolveDuplicates((PropertyTree) root, (PropertyTree) branch));
-            removedBranch.ifPresent(this::appendBranch);
-        });
+    /**
+     * Insert the value at the end of the key path, the missing nodes are created on the way.
+     * A key holding a value and prefixing other keys keeps its value: the longer keys are written flat, next to it.
+     *
+     * @param keyPath  segments of the property name, in order
+     * @param value
+     * @param comments comment lines of the property
+     */
+    public void insert(List<String> keyPath, Object value, List<String> comments) {
+        if (keyPath.isEmpty()) {
+            return;
+        }
+        PropertyTree node = this;
+        PropertyTree commentedNode = null;
+        String commentedKey = null;
+        int last = keyPath.size() - 1;
+        for (int i = 0; i < last; i++) {
+            String key = keyPath.get(i);
+            Object child = node.get(key);
+            if (child instanceof PropertyTree) {
+                node = (PropertyTree) child;
+            } else if (child == null) {
+                PropertyTree branch = new PropertyTree();
+                node.put(key, branch);
+                if (commentedNode == null) {
+                    commentedNode = node;
+                    commentedKey = key;
+                }
+                node = branch;
+            } else {
+                String flatKey = String.join(".", keyPath.subList(i, keyPath.size()));
+                node.put(flatKey, value);
+                node.addComments(flatKey, comments);
+                return;
+            }
+        }
+        String key = keyPath.get(last);
+        Object previous = node.put(key, value);
+        if (previous instanceof PropertyTree) {
+            ((PropertyTree) previous).flattenInto(node, key);
+        }
+        if (commentedNode == null) {
+            commentedNode = node;
+            commentedKey = key;
+        }
+        commentedNode.addComments(commentedKey, comments);
     }
 
-    private Optional<PropertyTree> removeMixedTypedBranch(String key, Object value) {
-        PropertyTree removedBranch = null;
-        if (containsKey(key) && isTerminationNode(key, value)) {
-            removedBranch = new PropertyTree(key + flatKey(get(key)), flatValue(get(key)));
-            remove(key);
-        }
-        return Optional.ofNullable(removedBranch);
+    private void flattenInto(PropertyTree target, String prefix) {
+        forEach((key, value) -> {
+            target.addComments(prefix + "." + key, getComments(key));
+            if (value instanceof PropertyTree) {
+                ((PropertyTree) value).flattenInto(target, prefix + "." + key);
+            } else {
+                target.put(prefix + "." + key, value);
+            }
+        });
     }
 
-    private boolean isTerminationNode(String key, Object value) {
-        return !(get(key) instanceof PropertyTree && value instanceof PropertyTree);
+    /**
+     * @return a copy of the tree, the keys of each mapping in alphabetical order with their comments
+     */
+    public PropertyTree sorted() {
+        PropertyTree sorted = new PropertyTree();
+        new TreeMap<>(this).forEach((key, value) -> {
+            sorted.put(key, sorted(value));
+            sorted.addComments(key, getComments(key));
+        });
+        sorted.addTrailingComments(trailingComments);
+        return sorted;
     }
 
-    private String flatKey(Object tree) {
-        if (tree instanceof PropertyTree) {
-            Map.Entry<String, Object> next = getNext((PropertyTree) tree);
-            return "." + next.getKey() + flatKey(next.getValue());
-        } else {
-            return "";
+    private static Object sorted(Object value) {
+        if (value instanceof PropertyTree) {
+            return ((PropertyTree) value).sorted();
         }
+        if (value instanceof List) {
+            List<Object> elements = new ArrayList<>();
+            ((List<?>) value).forEach(element -> elements.add(sorted(element)));
+            return elements;
+        }
+        return value;
     }
 
-    private Object flatValue(Object tree) {
-        if (tree instanceof PropertyTree) {
-            return flatValue(getNext((PropertyTree) tree).getValue());
-        } else {
-            return tree;
+    public List<String> getComments(String key) {
+        return comments.getOrDefault(key, Collections.emptyList());
+    }
+
+    public void addComments(String key, List<String> lines) {
+        if (!lines.isEmpty()) {
+            comments.computeIfAbsent(key, k -> new ArrayList<>()).addAll(lines);
         }
     }
 
-    private Map.Entry<String, Object> getNext(PropertyTree tree) {
-        return tree.entrySet().iterator().next();
+    public List<String> getTrailingComments() {
+        return trailingComments;
     }
 
-    private static Object resolveDuplicates(PropertyTree root, PropertyTree branch) {
-        root.appendBranch(branch);
-        return root;
+    public void addTrailingComments(List<String> lines) {
+        trailingComments.addAll(lines);
     }
 
     public String toYAML() {
         return new YamlPrinter(this).invoke();
     }
+
+    public void toYAML(Writer writer) {
+        new YamlPrinter(this).print(writer);
+    }
 }
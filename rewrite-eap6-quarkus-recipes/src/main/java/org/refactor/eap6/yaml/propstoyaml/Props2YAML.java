@@ -1,39 +1,60 @@
 package org.refactor.eap6.yaml.propstoyaml;
 
+import org.openrewrite.SourceFile;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.properties.PropertiesParser;
+import org.openrewrite.properties.tree.Properties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Properties;
+import java.util.*;
+import java.util.stream.Stream;
 
+/**
+ * The properties are read from the entries of the properties LST, in their order, with the comments written before them.
+ * What the LST leaves in the prefixes (trailing whitespace of a value, key without separator, continued line) is read back as
+ * {@code java.util.Properties} does.
+ */
 public class Props2YAML {
 
     private final static Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
-    private final Properties properties = new Properties();
+    private final Map<String, String> properties = new LinkedHashMap<>();
+
+    private final Map<String, List<String>> comments = new HashMap<>();
+
+    private final List<String> trailingComments = new ArrayList<>();
+
+    private boolean sortKeys;
 
     Props2YAML(String source) {
-        try {
-            properties.load(new StringReader(source));
-        } catch (IOException e) {
-            reportError(e);
-        }
+        load(new PropertiesParser().parse(source));
     }
 
     Props2YAML(File file) {
-        try (InputStream input = new FileInputStream(file)) {
-            properties.load(input);
+        try {
+            load(new PropertiesParser().parse(new String(Files.readAllBytes(file.toPath()), StandardCharsets.ISO_8859_1)));
         } catch (IOException e) {
             reportError(e);
         }
     }
 
+    Props2YAML(Properties.File file) {
+        load(file);
+    }
+
     public static Props2YAML fromContent(String content) {
         return new Props2YAML(content);
     }
 
+    /**
+     * @param file properties file, read in ISO-8859-1 as {@code Properties.load(InputStream)} does
+     */
     public static Props2YAML fromFile(File file) {
         return new Props2YAML(file);
     }
@@ -42,18 +63,281 @@ public class Props2YAML {
         return new Props2YAML(path.toFile());
     }
 
+    /**
+     * @param file properties LST, already parsed: the file is not read again
+     */
+    public static Props2YAML fromProperties(Properties.File file) {
+        return new Props2YAML(file);
+    }
+
+    /**
+     * @param sortKeys write the keys of each mapping in alphabetical order, as before the order of the properties was kept
+     * @return this
+     */
+    public Props2YAML sortKeys(boolean sortKeys) {
+        this.sortKeys = sortKeys;
+        return this;
+    }
+
     public String convert(boolean useNumericKeysAsArrayIndexes) {
-        PropertyTree tree = new TreeBuilder(properties,useNumericKeysAsArrayIndexes).build();
-        tree = new ArrayProcessor(tree).apply();
-        return tree.toYAML();
+        return buildTree(useNumericKeysAsArrayIndexes).toYAML();
     }
+
     public String convert() {
         return convert(true);
     }
 
+    /**
+     * Write the YAML document to the writer as it is produced, the document is never held in memory
+     */
+    public void convert(boolean useNumericKeysAsArrayIndexes, Writer writer) {
+        buildTree(useNumericKeysAsArrayIndexes).toYAML(writer);
+    }
+
+    private PropertyTree buildTree(boolean useNumericKeysAsArrayIndexes) {
+        PropertyTree tree = new TreeBuilder(properties, comments, useNumericKeysAsArrayIndexes).build();
+        tree.addTrailingComments(trailingComments);
+        PropertyTree result = new ArrayProcessor(tree).apply();
+        return sortKeys ? result.sorted() : result;
+    }
+
+    private void load(Stream<SourceFile> sourceFiles) {
+        sourceFiles.forEach(sourceFile -> {
+            if (sourceFile instanceof Properties.File) {
+                load((Properties.File) sourceFile);
+            } else {
+                LOG.error("Conversion failed, {} is not a properties file", sourceFile.getSourcePath());
+            }
+        });
+    }
+
+    private void load(Properties.File file) {
+        List<String> pendingComments = new ArrayList<>();
+        String previousKey = null;
+        String previousText = "";
+        for (Properties.Content content : file.getContent()) {
+            loadPrefix(previousText + content.getPrefix(), previousKey, pendingComments, false);
+            previousKey = null;
+            previousText = "";
+            if (content instanceof Properties.Comment) {
+                String message = ((Properties.Comment) content).getMessage();
+                //Un commentaire ne se prolonge pas : le LST y rattache la ligne suivant un antislash final
+                int lineBreak = lineBreak(message);
+                pendingComments.add(message.substring(0, lineBreak));
+                previousText = message.substring(lineBreak);
+            } else if (content instanceof Properties.Entry) {
+                Properties.Entry entry = (Properties.Entry) content;
+                previousKey = unescape(entry.getKey());
+                previousText = entry.getValue().getSource();
+                put(previousKey, unescape(previousText), pendingComments);
+            }
+        }
+        loadPrefix(previousText + file.getEof(), previousKey, pendingComments, true);
+        trailingComments.addAll(pendingComments);
+    }
+
+    private void put(String key, String value, List<String> pendingComments) {
+        properties.put(key, value);
+        if (!pendingComments.isEmpty()) {
+            comments.computeIfAbsent(key, k -> new ArrayList<>()).addAll(pendingComments);
+            pendingComments.clear();
+        }
+    }
+
+    /**
+     * The first line goes on with the value of the previous entry: its trailing whitespace, or the lines it is continued on.
+     * The other whole lines are the entries the LST does not parse: a key without value, or separated from its value by a whitespace.
+     *
+     * @param text        value of the previous entry followed by the prefix of a content, or by the end of the file
+     * @param previousKey key of the entry ending the previous line, null otherwise
+     * @param endOfFile   true when the last line of the prefix is not the indentation of a content
+     */
+    private void loadPrefix(String text, @Nullable String previousKey, List<String> pendingComments, boolean endOfFile) {
+        List<String> lines = logicalLines(text, previousKey != null);
+        int first = 0;
+        if (previousKey != null) {
+            properties.put(previousKey, unescape(lines.get(0)));
+            first = 1;
+        }
+        int end = endOfFile ? lines.size() : lines.size() - 1;
+        for (int i = first; i < end; i++) {
+            loadLine(lines.get(i), pendingComments);
+        }
+    }
+
+    /**
+     * The line is split as java.util.Properties does: the key ends at the first unescaped '=', ':' or whitespace,
+     * then come whitespace and at most one '=' or ':'. Key and value are unescaped as those of the LST entries.
+     */
+    private void loadLine(String line, List<String> pendingComments) {
+        int keyStart = skipWhitespace(line, 0);
+        if (keyStart == line.length()) {
+            return;
+        }
+        if (line.charAt(keyStart) == '#' || line.charAt(keyStart) == '!') {
+            pendingComments.add(line.substring(keyStart + 1));
+            return;
+        }
+        int keyEnd = keyStart;
+        while (keyEnd < line.length() && !isKeyEnd(line.charAt(keyEnd))) {
+            int next = skipLineContinuation(line, keyEnd);
+            keyEnd = next > keyEnd ? next : Math.min(line.length(), keyEnd + (line.charAt(keyEnd) == '\\' ? 2 : 1));
+        }
+        int valueStart = skipWhitespace(line, keyEnd);
+        if (valueStart < line.length() && (line.charAt(valueStart) == '=' || line.charAt(valueStart) == ':')) {
+            valueStart = skipWhitespace(line, valueStart + 1);
+        }
+        put(unescape(line.substring(keyStart, keyEnd)), unescape(line.substring(valueStart)), pendingComments);
+    }
+
+    /**
+     * Split the text in the lines read by java.util.Properties: a line ending with an unescaped backslash goes on
+     * with the next one, unless it is a comment
+     *
+     * @param valueFirst true when the first line is the rest of a value, never a comment
+     */
+    private static List<String> logicalLines(String text, boolean valueFirst) {
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        boolean comment = !valueFirst && isComment(text, 0);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && !comment) {
+                int next = skipLineContinuation(text, i);
+                i = next > i ? next - 1 : i + 1;
+            } else if (c == '\r' || c == '\n') {
+                lines.add(text.substring(start, i));
+                if (c == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                start = i + 1;
+                comment = isComment(text, start);
+            }
+        }
+        lines.add(text.substring(start));
+        return lines;
+    }
+
+    /**
+     * The LST keeps the escape sequences and line continuations of the keys and values, they are read as java.util.Properties does
+     */
+    private static String unescape(String text) {
+        if (text.indexOf('\\') < 0) {
+            return text;
+        }
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != '\\') {
+                result.append(c);
+                continue;
+            }
+            int next = skipLineContinuation(text, i);
+            if (next > i) {
+                i = next - 1;
+                continue;
+            }
+            if (i + 1 == text.length()) {
+                //Un antislash en fin de fichier est ignoré
+                break;
+            }
+            c = text.charAt(++i);
+            if (c == 'u' && isUnicodeEscape(text, i + 1)) {
+                result.append((char) Integer.parseInt(text.substring(i + 1, i + 5), 16));
+                i += 4;
+            } else if (c == 't') {
+                result.append('\t');
+            } else if (c == 'r') {
+                result.append('\r');
+            } else if (c == 'n') {
+                result.append('\n');
+            } else if (c == 'f') {
+                result.append('\f');
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * @return the index after a backslash at the given index followed by a line break, and after the whitespace
+     * starting the next line: the index itself when there is no line continuation
+     */
+    private static int skipLineContinuation(String text, int index) {
+        if (index + 1 >= text.length() || text.charAt(index) != '\\') {
+            return index;
+        }
+        int next = index + 1;
+        if (text.charAt(next) == '\r') {
+            next++;
+            if (next < text.length() && text.charAt(next) == '\n') {
+                next++;
+            }
+        } else if (text.charAt(next) == '\n') {
+            next++;
+        } else {
+            return index;
+        }
+        while (next < text.length() && isWhitespace(text.charAt(next))) {
+            next++;
+        }
+        return next;
+    }
+
+    private static int skipWhitespace(String text, int index) {
+        while (index < text.length()) {
+            int next = skipLineContinuation(text, index);
+            if (next > index) {
+                index = next;
+            } else if (isWhitespace(text.charAt(index))) {
+                index++;
+            } else {
+                break;
+            }
+        }
+        return index;
+    }
+
+    private static boolean isComment(String text, int start) {
+        int index = start;
+        while (index < text.length() && isWhitespace(text.charAt(index))) {
+            index++;
+        }
+        return index < text.length() && (text.charAt(index) == '#' || text.charAt(index) == '!');
+    }
+
+    private static int lineBreak(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\r' || text.charAt(i) == '\n') {
+                return i;
+            }
+        }
+        return text.length();
+    }
+
+    private static boolean isKeyEnd(char c) {
+        return c == '=' || c == ':' || isWhitespace(c);
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\f';
+    }
+
+    private static boolean isUnicodeEscape(String text, int start) {
+        if (start + 4 > text.length()) {
+            return false;
+        }
+        for (int i = start; i < start + 4; i++) {
+            if (Character.digit(text.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void reportError(IOException e) {
         LOG.error("Conversion failed", e);
     }
 
 }
-
@@ -2,6 +2,7 @@ package org.refactor.eap6.yaml.propstoyaml;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.nio.charset.StandardCharsets;
 import java.util.Scanner;
 
 class Props2YamlConverter {
@@ -29,7 +30,7 @@ class Props2YamlConverter {
 
     private static String readPropertiesFromFile(String fileName) {
         try {
-            return new Scanner(new File(fileName)).useDelimiter("\\A").next();
+            return new Scanner(new File(fileName), StandardCharsets.ISO_8859_1.name()).useDelimiter("\\A").next();
         } catch (FileNotFoundException e) {
             throw new IllegalArgumentException("File does not exist: " + fileName);
         }
@@ -1,57 +1,61 @@
 package org.refactor.eap6.yaml.propstoyaml;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
-import static java.util.stream.Collectors.toMap;
 import static org.refactor.eap6.yaml.propstoyaml.ValueConverter.asObject;
 
 class TreeBuilder {
 
-    private final Properties properties;
-    private final static Pattern pattern = Pattern.compile("[0-9]+");
+    private final Map<String, String> properties;
+    private final Map<String, List<String>> comments;
     private final boolean useNumericKeysAsArrayIndexes;
 
-    public TreeBuilder(Properties properties, boolean useNumericKeysAsArrayIndexes) {
+    public TreeBuilder(Map<String, String> properties, Map<String, List<String>> comments, boolean useNumericKeysAsArrayIndexes) {
         this.properties = properties;
+        this.comments = comments;
         this.useNumericKeysAsArrayIndexes = useNumericKeysAsArrayIndexes;
     }
 
-    public TreeBuilder(Properties properties) {
-        this(properties,true);
+    public TreeBuilder(Map<String, String> properties) {
+        this(properties, Collections.emptyMap(), true);
     }
 
+    /**
+     * Each property is inserted once in the tree, in the order of the properties, with its comments.
+     */
     public PropertyTree build() {
         PropertyTree root = new PropertyTree();
-        properties.stringPropertyNames().stream()
-                .collect(toMap(
-                        this::splitPropertyName,
-                        propertyName -> asObject(properties.getProperty(propertyName))))
-                .forEach(root::appendBranchFromKeyValue);
+        properties.forEach((propertyName, value) ->
+                root.insert(splitPropertyName(propertyName), asObject(value), comments.getOrDefault(propertyName, Collections.emptyList())));
         return root;
     }
 
 
     private List<String> splitPropertyName(String property) {
-        List<String> strings = Arrays.asList(property.split("\\."));
-        List<String> result = useNumericKeysAsArrayIndexes ? applyArrayNotation(strings) : strings;
-        Collections.reverse(result);
-        return result;
-    }
-
-    private List<String> applyArrayNotation(List<String> strings) {
-        List<String> result = new ArrayList<>();
-        for (String element : strings) {
-            Matcher matcher = pattern.matcher(element);
-            if (matcher.matches()) {
+        String[] segments = property.split("\\.");
+        List<String> result = new ArrayList<>(segments.length);
+        for (String segment : segments) {
+            if (useNumericKeysAsArrayIndexes && isIndex(segment)) {
                 int index = result.size() - 1;
-                result.set(index, result.get(index) + String.format("[%s]", element));
+                result.set(index, result.get(index) + '[' + segment + ']');
             } else {
-                result.add(element);
+                result.add(segment);
             }
         }
         return result;
     }
 
+    private static boolean isIndex(String segment) {
+        if (segment.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
 }
@@ -1,24 +1,152 @@
 package org.refactor.eap6.yaml.propstoyaml;
 
+import java.math.BigInteger;
+
+/**
+ * Typed value of a property : boolean, int, long, double or string, as read by the java parse methods.
+ * The value is scanned first, a parse method is only called on a literal it accepts, so a plain string costs no exception.
+ */
 class ValueConverter {
 
+    /**
+     * Longest decimal literal read as a long without overflow
+     */
+    private static final int MAX_LONG_DIGITS = 18;
+
     public static Object asObject(String string) {
         if (string.equalsIgnoreCase("true") || string.equalsIgnoreCase("false")) {
             return Boolean.valueOf(string);
-        } else {
-            try {
-                return Integer.parseInt(string);
-            } catch (NumberFormatException e) {
+        }
+        int digits = integerDigits(string);
+        if (digits > 0) {
+            return asInteger(string, digits);
+        }
+        if (isDouble(string)) {
+            return Double.parseDouble(string);
+        }
+        return string;
+    }
+
+    /**
+     * @param string
+     * @return the number of digits of an integer literal accepted by Integer.parseInt, 0 for any other value
+     */
+    private static int integerDigits(String string) {
+        int start = !string.isEmpty() && (string.charAt(0) == '-' || string.charAt(0) == '+') ? 1 : 0;
+        if (start == string.length()) {
+            return 0;
+        }
+        for (int i = start; i < string.length(); i++) {
+            if (Character.digit(string.charAt(i), 10) < 0) {
+                return 0;
             }
-            try {
-                return Long.parseLong(string);
-            } catch (NumberFormatException e) {
+        }
+        return string.length() - start;
+    }
+
+    private static Object asInteger(String string, int digits) {
+        if (digits <= MAX_LONG_DIGITS) {
+            long value = Long.parseLong(string);
+            if ((int) value == value) {
+                return (int) value;
             }
-            try {
-                return Double.parseDouble(string);
-            } catch (NumberFormatException e) {
+            return value;
+        }
+        BigInteger value = new BigInteger(string);
+        if (value.bitLength() < Long.SIZE) {
+            return value.longValue();
+        }
+        //Hors des bornes d'un long : lu comme un double, s'il est écrit en chiffres ASCII
+        return isDouble(string) ? Double.parseDouble(string) : string;
+    }
+
+    /**
+     * @param string
+     * @return whether Double.parseDouble reads the value: decimal or hexadecimal literal, NaN or Infinity,
+     * surrounded by optional whitespace
+     */
+    private static boolean isDouble(String string) {
+        int start = 0;
+        int end = string.length();
+        while (start < end && string.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && string.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int i = start < end && (string.charAt(start) == '-' || string.charAt(start) == '+') ? start + 1 : start;
+        if (i == end) {
+            return false;
+        }
+        if (string.startsWith("NaN", i)) {
+            return i + 3 == end;
+        }
+        if (string.startsWith("Infinity", i)) {
+            return i + 8 == end;
+        }
+        if (string.charAt(i) == '0' && i + 1 < end && (string.charAt(i + 1) == 'x' || string.charAt(i + 1) == 'X')) {
+            return isHexDouble(string, i + 2, end);
+        }
+        i = skipMantissa(string, i, end, false);
+        if (i < 0) {
+            return false;
+        }
+        if (i < end && (string.charAt(i) == 'e' || string.charAt(i) == 'E')) {
+            i = skipExponent(string, i + 1, end);
+        }
+        return i >= 0 && isEndOrSuffix(string, i, end);
+    }
+
+    private static boolean isHexDouble(String string, int start, int end) {
+        int i = skipMantissa(string, start, end, true);
+        if (i < 0 || i == end || (string.charAt(i) != 'p' && string.charAt(i) != 'P')) {
+            return false;
+        }
+        i = skipExponent(string, i + 1, end);
+        return i >= 0 && isEndOrSuffix(string, i, end);
+    }
+
+    /**
+     * @return the index following the digits and the optional point, -1 without any digit
+     */
+    private static int skipMantissa(String string, int start, int end, boolean hex) {
+        int digits = 0;
+        boolean point = false;
+        int i = start;
+        for (; i < end; i++) {
+            char c = string.charAt(i);
+            if (isAsciiDigit(c) || hex && (c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F')) {
+                digits++;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
             }
-            return string;
         }
+        return digits == 0 ? -1 : i;
+    }
+
+    /**
+     * @return the index following the signed exponent, -1 without any digit
+     */
+    private static int skipExponent(String string, int start, int end) {
+        int i = start < end && (string.charAt(start) == '-' || string.charAt(start) == '+') ? start + 1 : start;
+        int digitsStart = i;
+        while (i < end && isAsciiDigit(string.charAt(i))) {
+            i++;
+        }
+        return i == digitsStart ? -1 : i;
+    }
+
+    private static boolean isEndOrSuffix(String string, int i, int end) {
+        if (i == end) {
+            return true;
+        }
+        char c = string.charAt(i);
+        return i + 1 == end && (c == 'f' || c == 'F' || c == 'd' || c == 'D');
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
     }
 }
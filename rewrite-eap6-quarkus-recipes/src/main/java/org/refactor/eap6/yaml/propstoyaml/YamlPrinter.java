@@ -1,21 +1,136 @@
 package org.refactor.eap6.yaml.propstoyaml;
 
 import org.yaml.snakeyaml.DumperOptions;
-import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.comments.CommentType;
+import org.yaml.snakeyaml.emitter.Emitter;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.*;
+import org.yaml.snakeyaml.external.biz.base64Coder.Base64Coder;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.resolver.Resolver;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
+/**
+ * Write the tree as the events of a YAML document, straight to the emitter: no node graph, no intermediate document.
+ * Tags, implicit flags and scalar styles are the ones the SnakeYAML representer gives to the same values, so the output
+ * is the one of {@code Yaml.dump}. The comments of the properties are written as block comments, before their key.
+ */
 class YamlPrinter {
 
-    private final Map<String, Object> mainMap;
+    private static final Pattern MULTILINE_PATTERN = Pattern.compile("\n|\u0085|\u2028|\u2029");
+
+    private static final Resolver resolver = new Resolver();
+
+    private final PropertyTree mainMap;
 
     public YamlPrinter(PropertyTree mainMap) {
         this.mainMap = mainMap;
     }
 
     public String invoke() {
-        Yaml yaml = new Yaml(dumperOptions());
-        return yaml.dump(mainMap);
+        StringWriter writer = new StringWriter();
+        print(writer);
+        return writer.toString();
+    }
+
+    public void print(Writer writer) {
+        Emitter emitter = new Emitter(writer, dumperOptions());
+        try {
+            emitter.emit(new StreamStartEvent(null, null));
+            emitter.emit(new DocumentStartEvent(null, null, false, null, null));
+            emitNode(emitter, mainMap);
+            emitter.emit(new DocumentEndEvent(null, null, false));
+            emitter.emit(new StreamEndEvent(null, null));
+        } catch (IOException e) {
+            throw new YAMLException(e);
+        }
+    }
+
+    private void emitNode(Emitter emitter, Object value) throws IOException {
+        if (value instanceof PropertyTree) {
+            PropertyTree tree = (PropertyTree) value;
+            emitter.emit(new MappingStartEvent(null, Tag.MAP.getValue(), true, null, null, DumperOptions.FlowStyle.BLOCK));
+            for (Map.Entry<String, Object> entry : tree.entrySet()) {
+                emitComments(emitter, tree.getComments(entry.getKey()));
+                emitNode(emitter, entry.getKey());
+                emitNode(emitter, entry.getValue());
+            }
+            //Un mapping vide est écrit {} : il ne peut pas porter de commentaire
+            if (!tree.isEmpty()) {
+                emitComments(emitter, tree.getTrailingComments());
+            }
+            emitter.emit(new MappingEndEvent(null, null));
+        } else if (value instanceof List) {
+            emitter.emit(new SequenceStartEvent(null, Tag.SEQ.getValue(), true, null, null, DumperOptions.FlowStyle.BLOCK));
+            for (Object element : (List<?>) value) {
+                emitNode(emitter, element);
+            }
+            emitter.emit(new SequenceEndEvent(null, null));
+        } else {
+            emitScalar(emitter, value);
+        }
+    }
+
+    private void emitComments(Emitter emitter, List<String> comments) throws IOException {
+        for (String comment : comments) {
+            emitter.emit(new CommentEvent(CommentType.BLOCK, comment, null, null));
+        }
+    }
+
+    private void emitScalar(Emitter emitter, Object value) throws IOException {
+        Tag tag;
+        String text;
+        DumperOptions.ScalarStyle style = DumperOptions.ScalarStyle.PLAIN;
+        if (value == null) {
+            tag = Tag.NULL;
+            text = "null";
+        } else if (value instanceof Boolean) {
+            tag = Tag.BOOL;
+            text = value.toString();
+        } else if (value instanceof Integer || value instanceof Long) {
+            tag = Tag.INT;
+            text = value.toString();
+        } else if (value instanceof Double) {
+            tag = Tag.FLOAT;
+            text = floatText((Double) value);
+        } else {
+            tag = Tag.STR;
+            text = value.toString();
+            //Comme le representer SnakeYAML : binaire si non imprimable, littéral si multiligne
+            if (!StreamReader.isPrintable(text)) {
+                tag = Tag.BINARY;
+                text = String.valueOf(Base64Coder.encode(text.getBytes(StandardCharsets.UTF_8)));
+                style = DumperOptions.ScalarStyle.LITERAL;
+            }
+            if (MULTILINE_PATTERN.matcher(text).find()) {
+                style = DumperOptions.ScalarStyle.LITERAL;
+            }
+        }
+        ImplicitTuple implicit = new ImplicitTuple(tag.equals(resolver.resolve(NodeId.scalar, text, true)),
+                tag.equals(resolver.resolve(NodeId.scalar, text, false)));
+        emitter.emit(new ScalarEvent(null, tag.getValue(), implicit, text, null, null, style));
+    }
+
+    private static String floatText(Double value) {
+        if (value.isNaN()) {
+            return ".NaN";
+        }
+        if (value == Double.POSITIVE_INFINITY) {
+            return ".inf";
+        }
+        if (value == Double.NEGATIVE_INFINITY) {
+            return "-.inf";
+        }
+        return value.toString();
     }
 
     private DumperOptions dumperOptions() {
@@ -25,6 +140,7 @@ class YamlPrinter {
         dumperOptions.setDefaultScalarStyle(DumperOptions.ScalarStyle.PLAIN);
         dumperOptions.setLineBreak(DumperOptions.LineBreak.UNIX);
         dumperOptions.setPrettyFlow(true);
+        dumperOptions.setProcessComments(true);
         return dumperOptions;
     }
 }
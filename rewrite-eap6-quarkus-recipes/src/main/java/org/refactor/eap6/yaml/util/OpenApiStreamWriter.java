@@ -0,0 +1,390 @@
+package org.refactor.eap6.yaml.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
+import org.eclipse.microprofile.openapi.models.Components;
+import org.eclipse.microprofile.openapi.models.Extensible;
+import org.eclipse.microprofile.openapi.models.ExternalDocumentation;
+import org.eclipse.microprofile.openapi.models.OpenAPI;
+import org.eclipse.microprofile.openapi.models.Operation;
+import org.eclipse.microprofile.openapi.models.PathItem;
+import org.eclipse.microprofile.openapi.models.info.Info;
+import org.eclipse.microprofile.openapi.models.media.Content;
+import org.eclipse.microprofile.openapi.models.media.Discriminator;
+import org.eclipse.microprofile.openapi.models.media.MediaType;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.models.media.XML;
+import org.eclipse.microprofile.openapi.models.parameters.Parameter;
+import org.eclipse.microprofile.openapi.models.parameters.RequestBody;
+import org.eclipse.microprofile.openapi.models.responses.APIResponse;
+import org.eclipse.microprofile.openapi.models.tags.Tag;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Write an OpenAPI model in YAML or JSON with a Jackson streaming generator.
+ * The MicroProfile model interfaces are walked directly: no bean introspection and no post-processing,
+ * the OpenAPI keys ($ref, enum, additionalProperties, x-...) are written as they are.
+ */
+public class OpenApiStreamWriter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final YAMLFactory YAML_FACTORY = YAMLFactory.builder()
+            .disable(YAMLGenerator.Feature.WRITE_DOC_START_MARKER)
+            .enable(YAMLGenerator.Feature.MINIMIZE_QUOTES)
+            .enable(YAMLGenerator.Feature.INDENT_ARRAYS_WITH_INDICATOR)
+            .build();
+
+    private final JsonGenerator generator;
+
+    private OpenApiStreamWriter(JsonGenerator generator) {
+        this.generator = generator;
+    }
+
+    public static void toYAML(OpenAPI openAPI, Writer writer) {
+        write(openAPI, writer, YAML_FACTORY);
+    }
+
+    public static void toJSON(OpenAPI openAPI, Writer writer) {
+        write(openAPI, writer, JSON_FACTORY);
+    }
+
+    private static void write(OpenAPI openAPI, Writer writer, JsonFactory factory) {
+        openAPI.setOpenapi(ParserMicroprofile.OPENAPI_VERSION);
+        try (JsonGenerator generator = factory.createGenerator(writer)) {
+            if (factory == JSON_FACTORY) {
+                generator.useDefaultPrettyPrinter();
+            }
+            new OpenApiStreamWriter(generator).writeOpenAPI(openAPI);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeOpenAPI(OpenAPI openAPI) throws IOException {
+        generator.writeStartObject();
+        writeString("openapi", openAPI.getOpenapi());
+        if (openAPI.getInfo() != null) {
+            generator.writeFieldName("info");
+            writeInfo(openAPI.getInfo());
+        }
+        if (openAPI.getTags() != null && !openAPI.getTags().isEmpty()) {
+            generator.writeArrayFieldStart("tags");
+            for (Tag tag : openAPI.getTags()) {
+                generator.writeStartObject();
+                writeString("name", tag.getName());
+                writeString("description", tag.getDescription());
+                writeExtensions(tag);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        if (openAPI.getPaths() != null && openAPI.getPaths().getPathItems() != null) {
+            generator.writeObjectFieldStart("paths");
+            for (Map.Entry<String, PathItem> pathItem : openAPI.getPaths().getPathItems().entrySet()) {
+                generator.writeFieldName(pathItem.getKey());
+                writePathItem(pathItem.getValue());
+            }
+            generator.writeEndObject();
+        }
+        if (openAPI.getComponents() != null) {
+            generator.writeFieldName("components");
+            writeComponents(openAPI.getComponents());
+        }
+        writeExtensions(openAPI);
+        generator.writeEndObject();
+    }
+
+    private void writeInfo(Info info) throws IOException {
+        generator.writeStartObject();
+        writeString("title", info.getTitle());
+        writeString("description", info.getDescription());
+        writeString("version", info.getVersion());
+        writeExtensions(info);
+        generator.writeEndObject();
+    }
+
+    private void writePathItem(PathItem pathItem) throws IOException {
+        generator.writeStartObject();
+        writeString("$ref", pathItem.getRef());
+        writeString("summary", pathItem.getSummary());
+        writeString("description", pathItem.getDescription());
+        if (pathItem.getOperations() != null) {
+            for (Map.Entry<PathItem.HttpMethod, Operation> operation : pathItem.getOperations().entrySet()) {
+                generator.writeFieldName(operation.getKey().name().toLowerCase(Locale.ROOT));
+                writeOperation(operation.getValue());
+            }
+        }
+        writeParameters(pathItem.getParameters());
+        writeExtensions(pathItem);
+        generator.writeEndObject();
+    }
+
+    private void writeOperation(Operation operation) throws IOException {
+        generator.writeStartObject();
+        writeStrings("tags", operation.getTags());
+        writeString("summary", operation.getSummary());
+        writeString("description", operation.getDescription());
+        writeString("operationId", operation.getOperationId());
+        writeParameters(operation.getParameters());
+        if (operation.getRequestBody() != null) {
+            generator.writeFieldName("requestBody");
+            writeRequestBody(operation.getRequestBody());
+        }
+        if (operation.getResponses() != null && operation.getResponses().getAPIResponses() != null) {
+            generator.writeObjectFieldStart("responses");
+            for (Map.Entry<String, APIResponse> response : operation.getResponses().getAPIResponses().entrySet()) {
+                generator.writeObjectFieldStart(response.getKey());
+                writeString("$ref", response.getValue().getRef());
+                writeString("description", response.getValue().getDescription());
+                writeContent(response.getValue().getContent());
+                writeExtensions(response.getValue());
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+        writeBoolean("deprecated", operation.getDeprecated());
+        writeExtensions(operation);
+        generator.writeEndObject();
+    }
+
+    private void writeParameters(List<Parameter> parameters) throws IOException {
+        if (parameters == null || parameters.isEmpty()) {
+            return;
+        }
+        generator.writeArrayFieldStart("parameters");
+        for (Parameter parameter : parameters) {
+            generator.writeStartObject();
+            writeString("$ref", parameter.getRef());
+            writeString("name", parameter.getName());
+            writeString("in", parameter.getIn() != null ? parameter.getIn().toString() : null);
+            writeString("description", parameter.getDescription());
+            writeBoolean("required", parameter.getRequired());
+            writeBoolean("deprecated", parameter.getDeprecated());
+            writeString("style", parameter.getStyle() != null ? parameter.getStyle().toString() : null);
+            writeBoolean("explode", parameter.getExplode());
+            writeSchema("schema", parameter.getSchema());
+            writeContent(parameter.getContent());
+            writeExtensions(parameter);
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    private void writeRequestBody(RequestBody requestBody) throws IOException {
+        generator.writeStartObject();
+        writeString("$ref", requestBody.getRef());
+        writeString("description", requestBody.getDescription());
+        writeContent(requestBody.getContent());
+        writeBoolean("required", requestBody.getRequired());
+        writeExtensions(requestBody);
+        generator.writeEndObject();
+    }
+
+    private void writeContent(Content content) throws IOException {
+        if (content == null || content.getMediaTypes() == null) {
+            return;
+        }
+        generator.writeObjectFieldStart("content");
+        for (Map.Entry<String, MediaType> mediaType : content.getMediaTypes().entrySet()) {
+            generator.writeObjectFieldStart(mediaType.getKey());
+            writeSchema("schema", mediaType.getValue().getSchema());
+            writeValue("example", mediaType.getValue().getExample());
+            writeExtensions(mediaType.getValue());
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeComponents(Components components) throws IOException {
+        generator.writeStartObject();
+        if (components.getSchemas() != null) {
+            generator.writeObjectFieldStart("schemas");
+            for (Map.Entry<String, Schema> schema : components.getSchemas().entrySet()) {
+                writeSchema(schema.getKey(), schema.getValue());
+            }
+            generator.writeEndObject();
+        }
+        writeExtensions(components);
+        generator.writeEndObject();
+    }
+
+    private void writeSchema(String fieldName, Schema schema) throws IOException {
+        if (schema == null) {
+            return;
+        }
+        generator.writeFieldName(fieldName);
+        writeSchema(schema);
+    }
+
+    private void writeSchema(Schema schema) throws IOException {
+        generator.writeStartObject();
+        writeString("$ref", schema.getRef());
+        writeString("title", schema.getTitle());
+        writeString("description", schema.getDescription());
+        writeString("type", schema.getType() != null ? schema.getType().toString() : null);
+        writeString("format", schema.getFormat());
+        writeStrings("required", schema.getRequired());
+        writeValues("enum", schema.getEnumeration());
+        writeValue("default", schema.getDefaultValue());
+        writeValue("example", schema.getExample());
+        writeBoolean("nullable", schema.getNullable());
+        writeBoolean("readOnly", schema.getReadOnly());
+        writeBoolean("writeOnly", schema.getWriteOnly());
+        writeBoolean("deprecated", schema.getDeprecated());
+        writeBoolean("uniqueItems", schema.getUniqueItems());
+        writeString("pattern", schema.getPattern());
+        writeValue("multipleOf", schema.getMultipleOf());
+        writeValue("minimum", schema.getMinimum());
+        writeBoolean("exclusiveMinimum", schema.getExclusiveMinimum());
+        writeValue("maximum", schema.getMaximum());
+        writeBoolean("exclusiveMaximum", schema.getExclusiveMaximum());
+        writeValue("minLength", schema.getMinLength());
+        writeValue("maxLength", schema.getMaxLength());
+        writeValue("minItems", schema.getMinItems());
+        writeValue("maxItems", schema.getMaxItems());
+        writeValue("minProperties", schema.getMinProperties());
+        writeValue("maxProperties", schema.getMaxProperties());
+        ExternalDocumentation externalDocs = schema.getExternalDocs();
+        if (externalDocs != null) {
+            generator.writeObjectFieldStart("externalDocs");
+            writeString("description", externalDocs.getDescription());
+            writeString("url", externalDocs.getUrl());
+            writeExtensions(externalDocs);
+            generator.writeEndObject();
+        }
+        XML xml = schema.getXml();
+        if (xml != null) {
+            generator.writeObjectFieldStart("xml");
+            writeString("name", xml.getName());
+            writeString("namespace", xml.getNamespace());
+            writeString("prefix", xml.getPrefix());
+            writeBoolean("attribute", xml.getAttribute());
+            writeBoolean("wrapped", xml.getWrapped());
+            writeExtensions(xml);
+            generator.writeEndObject();
+        }
+        Discriminator discriminator = schema.getDiscriminator();
+        if (discriminator != null) {
+            generator.writeObjectFieldStart("discriminator");
+            writeString("propertyName", discriminator.getPropertyName());
+            if (discriminator.getMapping() != null) {
+                generator.writeObjectFieldStart("mapping");
+                for (Map.Entry<String, String> mapping : discriminator.getMapping().entrySet()) {
+                    writeString(mapping.getKey(), mapping.getValue());
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+        if (schema.getProperties() != null) {
+            generator.writeObjectFieldStart("properties");
+            for (Map.Entry<String, Schema> property : schema.getProperties().entrySet()) {
+                writeSchema(property.getKey(), property.getValue());
+            }
+            generator.writeEndObject();
+        }
+        if (schema.getAdditionalPropertiesBoolean() != null) {
+            writeBoolean("additionalProperties", schema.getAdditionalPropertiesBoolean());
+        } else {
+            writeSchema("additionalProperties", schema.getAdditionalPropertiesSchema());
+        }
+        writeSchema("items", schema.getItems());
+        writeSchemas("allOf", schema.getAllOf());
+        writeSchemas("oneOf", schema.getOneOf());
+        writeSchemas("anyOf", schema.getAnyOf());
+        writeSchema("not", schema.getNot());
+        writeExtensions(schema);
+        generator.writeEndObject();
+    }
+
+    private void writeSchemas(String fieldName, List<Schema> schemas) throws IOException {
+        if (schemas == null) {
+            return;
+        }
+        generator.writeArrayFieldStart(fieldName);
+        for (Schema schema : schemas) {
+            writeSchema(schema);
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Extensions are written at the level of the object they extend
+     */
+    private void writeExtensions(Extensible<?> extensible) throws IOException {
+        if (extensible.getExtensions() != null) {
+            for (Map.Entry<String, Object> extension : extensible.getExtensions().entrySet()) {
+                writeValue(extension.getKey(), extension.getValue());
+            }
+        }
+    }
+
+    private void writeString(String fieldName, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(fieldName, value);
+        }
+    }
+
+    private void writeBoolean(String fieldName, Boolean value) throws IOException {
+        if (value != null) {
+            generator.writeBooleanField(fieldName, value);
+        }
+    }
+
+    private void writeStrings(String fieldName, List<String> values) throws IOException {
+        if (values != null && !values.isEmpty()) {
+            generator.writeArrayFieldStart(fieldName);
+            for (String value : values) {
+                generator.writeString(value);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private void writeValues(String fieldName, List<Object> values) throws IOException {
+        if (values != null) {
+            generator.writeFieldName(fieldName);
+            writeValue(values);
+        }
+    }
+
+    private void writeValue(String fieldName, Object value) throws IOException {
+        if (value != null) {
+            generator.writeFieldName(fieldName);
+            writeValue(value);
+        }
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Map) {
+            generator.writeStartObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                generator.writeFieldName(String.valueOf(entry.getKey()));
+                writeValue(entry.getValue());
+            }
+            generator.writeEndObject();
+        } else if (value instanceof Collection) {
+            generator.writeStartArray();
+            for (Object item : (Collection<?>) value) {
+                writeValue(item);
+            }
+            generator.writeEndArray();
+        } else if (value instanceof Number || value instanceof Boolean) {
+            generator.writeObject(value);
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+}
@@ -11,6 +11,7 @@ import org.eclipse.microprofile.openapi.models.parameters.Parameter;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.introspector.Property;
+import org.yaml.snakeyaml.nodes.MappingNode;
 import org.yaml.snakeyaml.nodes.Node;
 import org.yaml.snakeyaml.nodes.NodeTuple;
 import org.yaml.snakeyaml.nodes.ScalarNode;
@@ -18,26 +19,47 @@ import org.yaml.snakeyaml.representer.Representer;
 
 import java.io.PrintWriter;
 import java.io.Writer;
-import java.nio.CharBuffer;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class ParserMicroprofile {
 
     public static final String OPENAPI_VERSION = "3.0.3";
 
     public static void toYAML(OpenAPI openAPI, Writer writer) {
+        toYAML(openAPI, writer, newDumper());
+    }
+
+    /**
+     * @param dumper created by {@link #newDumper()}, reused from one contract to the next by the same thread
+     */
+    public static void toYAML(OpenAPI openAPI, Writer writer, Yaml dumper) {
         openAPI.setOpenapi(OPENAPI_VERSION);
+        dumper.dump(openAPI, new TagSuppressingWriter(writer));
+    }
+
+    /**
+     * A SnakeYAML dumper is not thread safe: it is shared by the contracts written by one thread, so the property
+     * caches of the representer survive from one contract to the next
+     */
+    public static Yaml newDumper() {
         DumperOptions opts = new DumperOptions();
         opts.setIndent(2);
         opts.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
-        Yaml yaml = new Yaml(new CustomRepresenter(opts), opts);
-        yaml.dump(openAPI, new TagSuppressingWriter(writer));
+        return new Yaml(new CustomRepresenter(opts), opts);
     }
 
     private static class CustomRepresenter extends Representer {
 
+        /**
+         * Bean properties of the SmallRye model written under their OpenAPI name
+         */
+        private static final Map<String, String> propertyNames = CollectionsHelper.mapOf(
+                "ref", "$ref",
+                "enumeration", "enum",
+                "additionalPropertiesSchema", "additionalProperties");
+
+        private static final String EXTENSIONS_PROPERTY = "extensions";
+
         private static final Map<Class<?>, Set<String>> childEnumNames = new HashMap<>();
         private static final Map<Class<?>, Map<String, Set<String>>> childEnumValues =
                 new HashMap<>();
@@ -74,6 +96,9 @@ public class ParserMicroprofile {
             if (childEnumNames.getOrDefault(javaBean.getClass(), Collections.emptySet()).contains(property.getName())) {
                 result = new NodeTuple(adjustNode(result.getKeyNode()), result.getValueNode());
             }
+            if (propertyNames.containsKey(property.getName())) {
+                result = new NodeTuple(renameNode(result.getKeyNode(), propertyNames.get(property.getName())), result.getValueNode());
+            }
             if (propertyValue instanceof Enum && childEnumValues.getOrDefault(javaBean.getClass(),
                             Collections.emptyMap())
                     .getOrDefault(property.getName(), Collections.emptySet())
@@ -83,6 +108,34 @@ public class ParserMicroprofile {
             return result;
         }
 
+        /**
+         * The extensions are written as entries of the extended object, not under an extensions key
+         */
+        @Override
+        protected MappingNode representJavaBean(Set<Property> properties, Object javaBean) {
+            MappingNode node = super.representJavaBean(properties, javaBean);
+            List<NodeTuple> tuples = new ArrayList<>(node.getValue().size());
+            for (NodeTuple tuple : node.getValue()) {
+                if (tuple.getKeyNode() instanceof ScalarNode && tuple.getValueNode() instanceof MappingNode
+                        && EXTENSIONS_PROPERTY.equals(((ScalarNode) tuple.getKeyNode()).getValue())) {
+                    tuples.addAll(((MappingNode) tuple.getValueNode()).getValue());
+                } else {
+                    tuples.add(tuple);
+                }
+            }
+            node.setValue(tuples);
+            return node;
+        }
+
+        private static Node renameNode(Node n, String name) {
+            Node result = n;
+            if (n instanceof ScalarNode) {
+                ScalarNode orig = (ScalarNode) n;
+                result = new ScalarNode(orig.getTag(), name, orig.getStartMark(), orig.getEndMark(), orig.getScalarStyle());
+            }
+            return result;
+        }
+
         private static Node adjustNode(Node n) {
             Node result = n;
             if (n instanceof ScalarNode) {
@@ -95,38 +148,52 @@ public class ParserMicroprofile {
         }
     }
 
+    /**
+     * Drop the tags written by SnakeYAML: the emitter writes a tag in a single call, starting with '!'
+     * and without any double quote. Each written chunk is checked in place, nothing is allocated.
+     */
     static class TagSuppressingWriter extends PrintWriter {
 
-        private static final Pattern UNQUOTED_TRAILING_TAG_PATTERN = Pattern.compile("\\![^\"]+$");
-
         TagSuppressingWriter(Writer out) {
             super(out);
         }
 
         @Override
         public void write(char[] cbuf, int off, int len) {
-            int effLen = detag(CharBuffer.wrap(cbuf), off, len);
-            if (effLen > 0) {
-                super.write(cbuf, off, effLen);
+            if (!isTag(cbuf, off, len)) {
+                super.write(cbuf, off, len);
             }
         }
 
         @Override
         public void write(String s, int off, int len) {
-            int effLen = detag(s, off, len);
-            if (effLen > 0) {
-                super.write(s, off, effLen);
+            if (!isTag(s, off, len)) {
+                super.write(s, off, len);
             }
         }
 
-        private int detag(CharSequence cs, int off, int len) {
-            int result = len;
-            Matcher m = UNQUOTED_TRAILING_TAG_PATTERN.matcher(cs.subSequence(off, off + len));
-            if (m.matches()) {
-                result = len - (m.end() - m.start());
+        private static boolean isTag(char[] cbuf, int off, int len) {
+            if (len < 2 || cbuf[off] != '!') {
+                return false;
+            }
+            for (int i = off + 1; i < off + len; i++) {
+                if (cbuf[i] == '"') {
+                    return false;
+                }
             }
+            return true;
+        }
 
-            return result;
+        private static boolean isTag(String s, int off, int len) {
+            if (len < 2 || s.charAt(off) != '!') {
+                return false;
+            }
+            for (int i = off + 1; i < off + len; i++) {
+                if (s.charAt(i) == '"') {
+                    return false;
+                }
+            }
+            return true;
         }
     }
 }
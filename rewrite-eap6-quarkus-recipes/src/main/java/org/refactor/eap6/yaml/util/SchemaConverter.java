@@ -1,10 +1,19 @@
 package org.refactor.eap6.yaml.util;
 
+import io.smallrye.openapi.api.models.ExternalDocumentationImpl;
+import io.smallrye.openapi.api.models.media.DiscriminatorImpl;
 import io.smallrye.openapi.api.models.media.SchemaImpl;
+import io.smallrye.openapi.api.models.media.XMLImpl;
+import org.eclipse.microprofile.openapi.models.ExternalDocumentation;
+import org.eclipse.microprofile.openapi.models.media.Discriminator;
 import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.eclipse.microprofile.openapi.models.media.XML;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 public class SchemaConverter {
@@ -54,4 +63,119 @@ public class SchemaConverter {
 
         return microProfileSchema;
     }
+
+    /**
+     * Deep copy of a MicroProfile schema, every property included, the properties order is kept
+     *
+     * @param schema
+     * @return
+     */
+    public static Schema copy(Schema schema) {
+        if (schema == null) {
+            return null;
+        }
+
+        Schema copy = new SchemaImpl();
+        copy.setTitle(schema.getTitle());
+        copy.setRef(schema.getRef());
+        copy.setType(schema.getType());
+        copy.setFormat(schema.getFormat());
+        copy.setDescription(schema.getDescription());
+        copy.setDefaultValue(schema.getDefaultValue());
+        copy.setExample(schema.getExample());
+        copy.setNullable(schema.getNullable());
+        copy.setReadOnly(schema.getReadOnly());
+        copy.setWriteOnly(schema.getWriteOnly());
+        copy.setDeprecated(schema.getDeprecated());
+        copy.setUniqueItems(schema.getUniqueItems());
+        copy.setMultipleOf(schema.getMultipleOf());
+        copy.setMaximum(schema.getMaximum());
+        copy.setExclusiveMaximum(schema.getExclusiveMaximum());
+        copy.setMinimum(schema.getMinimum());
+        copy.setExclusiveMinimum(schema.getExclusiveMinimum());
+        copy.setMaxLength(schema.getMaxLength());
+        copy.setMinLength(schema.getMinLength());
+        copy.setPattern(schema.getPattern());
+        copy.setMaxItems(schema.getMaxItems());
+        copy.setMinItems(schema.getMinItems());
+        copy.setMaxProperties(schema.getMaxProperties());
+        copy.setMinProperties(schema.getMinProperties());
+        if (schema.getRequired() != null) {
+            copy.setRequired(new ArrayList<>(schema.getRequired()));
+        }
+        if (schema.getEnumeration() != null) {
+            copy.setEnumeration(new ArrayList<>(schema.getEnumeration()));
+        }
+        copy.setDiscriminator(copy(schema.getDiscriminator()));
+        //Le schéma et le booléen s'excluent : chaque setter efface l'autre
+        if (schema.getAdditionalPropertiesSchema() != null) {
+            copy.setAdditionalPropertiesSchema(copy(schema.getAdditionalPropertiesSchema()));
+        } else if (schema.getAdditionalPropertiesBoolean() != null) {
+            copy.setAdditionalPropertiesBoolean(schema.getAdditionalPropertiesBoolean());
+        }
+        if (schema.getProperties() != null) {
+            Map<String, Schema> properties = new LinkedHashMap<>();
+            schema.getProperties().forEach((key, value) -> properties.put(key, copy(value)));
+            copy.setProperties(properties);
+        }
+        copy.setItems(copy(schema.getItems()));
+        copy.setAllOf(copy(schema.getAllOf()));
+        copy.setOneOf(copy(schema.getOneOf()));
+        copy.setAnyOf(copy(schema.getAnyOf()));
+        copy.setNot(copy(schema.getNot()));
+        copy.setExternalDocs(copy(schema.getExternalDocs()));
+        copy.setXml(copy(schema.getXml()));
+        copy.setExtensions(copyExtensions(schema.getExtensions()));
+        return copy;
+    }
+
+    private static List<Schema> copy(List<Schema> schemas) {
+        if (schemas == null) {
+            return null;
+        }
+        List<Schema> copy = new ArrayList<>(schemas.size());
+        schemas.forEach(schema -> copy.add(copy(schema)));
+        return copy;
+    }
+
+    private static Discriminator copy(Discriminator discriminator) {
+        if (discriminator == null) {
+            return null;
+        }
+        Discriminator copy = new DiscriminatorImpl();
+        copy.setPropertyName(discriminator.getPropertyName());
+        if (discriminator.getMapping() != null) {
+            copy.setMapping(new LinkedHashMap<>(discriminator.getMapping()));
+        }
+        return copy;
+    }
+
+    private static ExternalDocumentation copy(ExternalDocumentation externalDocs) {
+        if (externalDocs == null) {
+            return null;
+        }
+        ExternalDocumentation copy = new ExternalDocumentationImpl();
+        copy.setDescription(externalDocs.getDescription());
+        copy.setUrl(externalDocs.getUrl());
+        copy.setExtensions(copyExtensions(externalDocs.getExtensions()));
+        return copy;
+    }
+
+    private static XML copy(XML xml) {
+        if (xml == null) {
+            return null;
+        }
+        XML copy = new XMLImpl();
+        copy.setName(xml.getName());
+        copy.setNamespace(xml.getNamespace());
+        copy.setPrefix(xml.getPrefix());
+        copy.setAttribute(xml.getAttribute());
+        copy.setWrapped(xml.getWrapped());
+        copy.setExtensions(copyExtensions(xml.getExtensions()));
+        return copy;
+    }
+
+    private static Map<String, Object> copyExtensions(Map<String, Object> extensions) {
+        return extensions == null ? null : new LinkedHashMap<>(extensions);
+    }
 }
@@ -0,0 +1,24 @@
+package org.refactor.eap6.java.dto.parcel;
+
+public class Box<T> {
+
+    private String label;
+
+    private T content;
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public T getContent() {
+        return content;
+    }
+
+    public void setContent(T content) {
+        this.content = content;
+    }
+}
@@ -0,0 +1,42 @@
+package org.refactor.eap6.java.dto.parcel;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.refactor.eap6.java.dto.Country;
+
+import java.util.List;
+
+public class Parcel extends Box<Country> {
+
+    @JsonProperty("weight_kg")
+    private Double weight;
+
+    @JsonIgnore
+    private String trackingCode;
+
+    private List<Country> stops;
+
+    public Double getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Double weight) {
+        this.weight = weight;
+    }
+
+    public String getTrackingCode() {
+        return trackingCode;
+    }
+
+    public void setTrackingCode(String trackingCode) {
+        this.trackingCode = trackingCode;
+    }
+
+    public List<Country> getStops() {
+        return stops;
+    }
+
+    public void setStops(List<Country> stops) {
+        this.stops = stops;
+    }
+}
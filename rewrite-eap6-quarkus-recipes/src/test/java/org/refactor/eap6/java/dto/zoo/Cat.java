@@ -0,0 +1,29 @@
+package org.refactor.eap6.java.dto.zoo;
+
+public class Cat {
+
+    private String name;
+
+    private String enclosure;
+
+    public Cat(String name, String enclosure) {
+        this.name = name;
+        this.enclosure = enclosure;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getEnclosure() {
+        return enclosure;
+    }
+
+    public void setEnclosure(String enclosure) {
+        this.enclosure = enclosure;
+    }
+}
@@ -0,0 +1,76 @@
+package org.refactor.eap6.java.ejb;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClassNameMatcherTest {
+
+    @Test
+    public void shouldMatchEveryClassWhenNullOrBlank() {
+        assertThat(ClassNameMatcher.compile(null).matches("com.foo.Bar")).isTrue();
+        assertThat(ClassNameMatcher.compile(" , ").matches("com.foo.Bar")).isTrue();
+    }
+
+    @Test
+    public void shouldMatchExactNamesOnly() {
+        ClassNameMatcher matcher = ClassNameMatcher.compile("com.foo.Bar");
+        assertThat(matcher.matches("com.foo.Bar")).isTrue();
+        assertThat(matcher.matches("com.foo.Bar2")).isFalse();
+        assertThat(matcher.matches("com.foo")).isFalse();
+        assertThat(matcher.matches("xcom.foo.Bar")).isFalse();
+    }
+
+    @Test
+    public void shouldMatchOnePackageLevelWithSingleStar() {
+        ClassNameMatcher matcher = ClassNameMatcher.compile("com.foo.*");
+        assertThat(matcher.matches("com.foo.Bar")).isTrue();
+        assertThat(matcher.matches("com.foo.bar.Baz")).isFalse();
+        assertThat(matcher.matches("com.foobar.Baz")).isFalse();
+    }
+
+    @Test
+    public void shouldMatchAnySubpackageWithDoubleStar() {
+        ClassNameMatcher matcher = ClassNameMatcher.compile("com.foo.**");
+        assertThat(matcher.matches("com.foo.Bar")).isTrue();
+        assertThat(matcher.matches("com.foo.bar.Baz")).isTrue();
+        assertThat(matcher.matches("com.foobar.Baz")).isFalse();
+    }
+
+    @Test
+    public void shouldMatchPartOfANameWithStar() {
+        ClassNameMatcher matcher = ClassNameMatcher.compile("org.fin.*.ejb.I*Remote");
+        assertThat(matcher.matches("org.fin.account.ejb.IAccountRemote")).isTrue();
+        assertThat(matcher.matches("org.fin.account.ejb.IAccountLocal")).isFalse();
+        assertThat(matcher.matches("org.fin.account.sub.ejb.IAccountRemote")).isFalse();
+    }
+
+    @Test
+    public void shouldMatchASingleCharacterWithQuestionMark() {
+        ClassNameMatcher matcher = ClassNameMatcher.compile("com.foo.Bar?");
+        assertThat(matcher.matches("com.foo.Bar1")).isTrue();
+        assertThat(matcher.matches("com.foo.Bar")).isFalse();
+        assertThat(matcher.matches("com.foo.Bar12")).isFalse();
+        assertThat(ClassNameMatcher.compile("com.foo?Bar").matches("com.foo.Bar")).isFalse();
+    }
+
+    @Test
+    public void shouldMatchRegexMetacharactersLiterally() {
+        ClassNameMatcher matcher = ClassNameMatcher.compile("com.foo.Outer$*");
+        assertThat(matcher.matches("com.foo.Outer$Inner")).isTrue();
+        assertThat(matcher.matches("com.foo.Outer")).isFalse();
+        assertThat(ClassNameMatcher.compile("com.foo.*").matches("comxfoo.Bar")).isFalse();
+        assertThat(ClassNameMatcher.compile("com.foo.Outer$Inner").matches("com.foo.Outer$Inner")).isTrue();
+        assertThat(ClassNameMatcher.compile("com.foo.Outer$Inner").matches("com.foo.OuterInner")).isFalse();
+    }
+
+    @Test
+    public void shouldMatchAnyNameOrPatternOfTheList() {
+        ClassNameMatcher matcher = ClassNameMatcher.compile(" com.foo.Bar , org.fin.** ,, com.baz.I?Service");
+        assertThat(matcher.matches("com.foo.Bar")).isTrue();
+        assertThat(matcher.matches("org.fin.account.ejb.IAccountRemote")).isTrue();
+        assertThat(matcher.matches("com.baz.IAService")).isTrue();
+        assertThat(matcher.matches("com.foo.Baz")).isFalse();
+        assertThat(matcher.matches("com.baz.IService")).isFalse();
+    }
+}
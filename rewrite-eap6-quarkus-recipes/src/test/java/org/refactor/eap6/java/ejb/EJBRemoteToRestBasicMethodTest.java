@@ -1,18 +1,25 @@
 package org.refactor.eap6.java.ejb;
 
-import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.openrewrite.java.JavaParser;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
 import org.openrewrite.test.SourceSpecs;
 import org.openrewrite.test.TypeValidation;
+import org.yaml.snakeyaml.Yaml;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.openrewrite.java.Assertions.java;
+import static org.openrewrite.properties.Assertions.properties;
+import static org.openrewrite.test.SourceSpecs.text;
+import static org.openrewrite.yaml.Assertions.yaml;
 
 class EJBRemoteToRestBasicMethodTest implements RewriteTest {
 
@@ -68,7 +75,7 @@ class EJBRemoteToRestBasicMethodTest implements RewriteTest {
     }
 
     @Test
-    public void shouldProduceAPIWithEmptyParametersAndStringResponse() throws IOException {
+    public void shouldProduceAPIWithEmptyParametersAndStringResponse() {
         rewriteRun(
                 java("""
                         package org.refactor.eap6.svc.ejb;
@@ -81,13 +88,13 @@ class EJBRemoteToRestBasicMethodTest implements RewriteTest {
 
                             String getAnimals();
                         }
-                        """, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml"))
+                        """),
+                yaml(null, expectedContractWithEmptyParametersAndStringResponse, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim())
         );
-        assertThat(FileUtils.readFileToString(new File("target/IAnimalService.yaml"))).isEqualTo(expectedContractWithEmptyParametersAndStringResponse);
     }
 
     @Test
-    public void shouldProduceAPIWithQueryParametersAndStringResponse() throws IOException {
+    public void shouldProduceAPIWithQueryParametersAndStringResponse() {
         rewriteRun(
                 java("""
                         package org.refactor.eap6.svc.ejb;
@@ -100,13 +107,71 @@ class EJBRemoteToRestBasicMethodTest implements RewriteTest {
 
                             String getAnimals(String name, Date referenceDate);
                         }
-                        """, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml"))
+                        """),
+                yaml(null, expectedContractWithQueryParametersAndStringResponse, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim())
         );
-        assertThat(FileUtils.readFileToString(new File("target/IAnimalService.yaml"))).isEqualTo(expectedContractWithQueryParametersAndStringResponse);
     }
 
     @Test
-    public void shouldProduceAPIWithQueryParametersAndInheritedObjectResponse() throws IOException {
+    public void shouldListEndpointsInDataTable() {
+        rewriteRun(spec -> spec.dataTable(EndpointInventory.Row.class, rows -> assertThat(rows).containsExactly(
+                        new EndpointInventory.Row("org.refactor.eap6.svc.ejb.IAnimalService", "/IAnimalService/getAnimals", "POST", "get-animals",
+                                2, "", "string", false))),
+                java("""
+                        package org.refactor.eap6.svc.ejb;
+
+                        import java.util.Date;
+                        import javax.ejb.Remote;
+
+                        @Remote
+                        public interface IAnimalService {
+
+                            String getAnimals(String name, Date referenceDate);
+                        }
+                        """),
+                yaml(null, expectedContractWithQueryParametersAndStringResponse, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim())
+        );
+    }
+
+    @Test
+    public void shouldProduceAPIWithQueryParametersAndInheritedObjectResponse() {
+        rewriteRun(classAnimal, classDog, classBird,
+                java(animalServiceWithInheritedObjectResponse),
+                yaml(null, expectedContractWithQueryParametersAndInheritedObjectResponse, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim())
+        );
+    }
+
+    @Test
+    public void shouldStreamTheSameContractInYaml() {
+        AtomicReference<String> contract = new AtomicReference<>();
+        rewriteRun(spec -> spec.recipe(new EJBRemoteToRest(null, null, null, null, "yaml-stream", null, null)),
+                classAnimal, classDog, classBird,
+                java(animalServiceWithInheritedObjectResponse),
+                yaml(null, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim().after(actual -> {
+                    contract.set(actual);
+                    return actual;
+                }))
+        );
+        assertThat(load(contract.get())).isEqualTo(load(expectedContractWithQueryParametersAndInheritedObjectResponse));
+    }
+
+    @Test
+    public void shouldStreamTheSameContractInJson() {
+        AtomicReference<String> contract = new AtomicReference<>();
+        rewriteRun(spec -> spec.recipe(new EJBRemoteToRest(null, null, null, null, "json", null, null)),
+                classAnimal, classDog, classBird,
+                java(animalServiceWithInheritedObjectResponse),
+                text(null, sourceSpecs -> sourceSpecs.path("target/IAnimalService.json").noTrim().after(actual -> {
+                    contract.set(actual);
+                    return actual;
+                }))
+        );
+        //Le JSON est un sous-ensemble de YAML : les deux contrats sont relus de la même façon
+        assertThat(load(contract.get())).isEqualTo(load(expectedContractWithQueryParametersAndInheritedObjectResponse));
+    }
+
+    @Test
+    public void shouldKeepDiscriminatorOfPolymorphicObjectReturnedByTwoOperations() {
         rewriteRun(classAnimal, classDog, classBird,
                 java("""
                         package org.refactor.eap6.svc.ejb;
@@ -119,14 +184,16 @@ class EJBRemoteToRestBasicMethodTest implements RewriteTest {
                         public interface IAnimalService {
 
                             Animal getAnimals(String name, Date referenceDate);
+
+                            Animal findAnimal(String name);
                         }
-                        """, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml"))
+                        """),
+                yaml(null, expectedContractWithTwoOperationsReturningInheritedObject, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim())
         );
-        assertThat(FileUtils.readFileToString(new File("target/IAnimalService.yaml"))).isEqualTo(expectedContractWithQueryParametersAndInheritedObjectResponse);
     }
 
     @Test
-    public void shouldProduceAPIWithQueryParametersAndImplementsObjectResponse() throws IOException {
+    public void shouldProduceAPIWithQueryParametersAndImplementsObjectResponse() {
         rewriteRun(interfaceHuman, classMan, classWoman,
                 java("""
                         package org.refactor.eap6.svc.ejb;
@@ -140,13 +207,13 @@ class EJBRemoteToRestBasicMethodTest implements RewriteTest {
 
                             Human getAnimals(String name, Date referenceDate);
                         }
-                        """, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml"))
+                        """),
+                yaml(null, expectedContractWithQueryParametersAndImplementsObjectResponse, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim())
         );
-        assertThat(FileUtils.readFileToString(new File("target/IAnimalService.yaml"))).isEqualTo(expectedContractWithQueryParametersAndImplementsObjectResponse);
     }
 
     @Test
-    public void shouldProduceAPIWithQueryParametersGETAndStringResponse() throws IOException {
+    public void shouldProduceAPIWithQueryParametersGETAndStringResponse() {
         rewriteRun(
                 java("""
                         package org.refactor.eap6.svc.ejb;
@@ -160,13 +227,13 @@ class EJBRemoteToRestBasicMethodTest implements RewriteTest {
                             @ToRest(path="/animals", action=ToRest.Action.GET, tag="animal", description="Animals API")
                             String getAnimals(String name, Date referenceDate);
                         }
-                        """, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml"))
+                        """),
+                yaml(null, expectedContractWithQueryParametersGETAndStringResponse, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim())
         );
-        assertThat(FileUtils.readFileToString(new File("target/IAnimalService.yaml"))).isEqualTo(expectedContractWithQueryParametersGETAndStringResponse);
     }
 
     @Test
-    public void shouldProduceAPIWithQueryParametersAndListOfStringResponse() throws IOException {
+    public void shouldProduceAPIWithQueryParametersAndListOfStringResponse() {
         rewriteRun(
                 java("""
                         package org.refactor.eap6.svc.ejb;
@@ -180,13 +247,13 @@ class EJBRemoteToRestBasicMethodTest implements RewriteTest {
 
                             List<String> getAnimals(String name, Date referenceDate);
                         }
-                        """, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml"))
+                        """),
+                yaml(null, expectedContractWithQueryParametersAndListOfStringResponse, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim())
         );
-        assertThat(FileUtils.readFileToString(new File("target/IAnimalService.yaml"))).isEqualTo(expectedContractWithQueryParametersAndListOfStringResponse);
     }
 
     @Test
-    public void shouldProduceAPIWithQueryParametersAndSetOfStringResponse() throws IOException {
+    public void shouldProduceAPIWithQueryParametersAndSetOfStringResponse() {
         rewriteRun(
                 java("""
                         package org.refactor.eap6.svc.ejb;
@@ -200,13 +267,13 @@ class EJBRemoteToRestBasicMethodTest implements RewriteTest {
 
                             Set<String> getAnimals(String name, Date referenceDate);
                         }
-                        """, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml"))
+                        """),
+                yaml(null, expectedContractWithQueryParametersAndSetOfStringResponse, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim())
         );
-        assertThat(FileUtils.readFileToString(new File("target/IAnimalService.yaml"))).isEqualTo(expectedContractWithQueryParametersAndSetOfStringResponse);
     }
 
     @Test
-    public void shouldProduceAPIWithRequestBodyAndListOfStringResponse() throws IOException {
+    public void shouldProduceAPIWithRequestBodyAndListOfStringResponse() {
         rewriteRun(classCat,
                 java("""
                         package org.refactor.eap6.svc.ejb;
@@ -221,13 +288,13 @@ class EJBRemoteToRestBasicMethodTest implements RewriteTest {
 
                             List<String> getAnimals(Cat cat);
                         }
-                        """, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml"))
+                        """),
+                yaml(null, expectedContractWithRequestbodyAndListOfStringResponse, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim())
         );
-        assertThat(FileUtils.readFileToString(new File("target/IAnimalService.yaml"))).isEqualTo(expectedContractWithRequestbodyAndListOfStringResponse);
     }
 
     @Test
-    public void shouldProduceAPIWithRequestBodyListAndListOfStringResponse() throws IOException {
+    public void shouldProduceAPIWithRequestBodyListAndListOfStringResponse() {
         rewriteRun(classCat,
                 java("""
                         package org.refactor.eap6.svc.ejb;
@@ -242,11 +309,171 @@ class EJBRemoteToRestBasicMethodTest implements RewriteTest {
 
                             List<String> getAnimals(List<Cat> cats);
                         }
-                        """, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml"))
+                        """),
+                yaml(null, expectedContractWithRequestbodyListAndListOfStringResponse, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim())
         );
-        assertThat(FileUtils.readFileToString(new File("target/IAnimalService.yaml"))).isEqualTo(expectedContractWithRequestbodyListAndListOfStringResponse);
     }
 
+    @Test
+    public void shouldOnlyRebuildChangedContractsInIncrementalMode(@TempDir Path targetDirectory) throws IOException {
+        Path animalContract = targetDirectory.resolve("IAnimalService.yaml");
+        Path plantContract = targetDirectory.resolve("IPlantService.yaml");
+        Path stoneContract = targetDirectory.resolve("IStoneService.yaml");
+        Path manifestFile = targetDirectory.resolve(ContractManifest.FILE_NAME);
+        String animalContent = expectedContractWithEmptyParametersAndStringResponse;
+        String plantContent = renamed(expectedContractWithEmptyParametersAndStringResponse, "IPlantService", "getPlants", "get-plants");
+        String changedPlantContent = renamed(expectedContractWithQueryParametersAndStringResponse, "IPlantService", "getPlants", "get-plants");
+        String stoneContent = renamed(expectedContractWithEmptyParametersAndStringResponse, "IStoneService", "getStones", "get-stones");
+        AtomicReference<String> firstManifest = new AtomicReference<>();
+        AtomicReference<String> secondManifest = new AtomicReference<>();
+
+        rewriteRun(spec -> spec.recipe(new EJBRemoteToRest(targetDirectory.toString(), null, true, null, null, null, null)),
+                java(remoteInterface("IAnimalService", "String getAnimals();")),
+                java(remoteInterface("IPlantService", "String getPlants();")),
+                java(remoteInterface("IStoneService", "String getStones();")),
+                yaml(null, animalContent, sourceSpecs -> sourceSpecs.path(animalContract).noTrim()),
+                yaml(null, plantContent, sourceSpecs -> sourceSpecs.path(plantContract).noTrim()),
+                yaml(null, stoneContent, sourceSpecs -> sourceSpecs.path(stoneContract).noTrim()),
+                properties(null, sourceSpecs -> sourceSpecs.path(manifestFile).noTrim().after(actual -> {
+                    firstManifest.set(actual);
+                    return actual;
+                }))
+        );
+        Properties firstRun = fingerprints(firstManifest.get());
+        assertThat(firstRun.stringPropertyNames()).containsExactlyInAnyOrder("org.refactor.eap6.svc.ejb.IAnimalService",
+                "org.refactor.eap6.svc.ejb.IPlantService", "org.refactor.eap6.svc.ejb.IStoneService");
+        //Le manifeste n'est écrit que par l'application des résultats
+        assertThat(manifestFile).doesNotExist();
+
+        //IAnimalService inchangée, IPlantService modifiée, IStoneService supprimée
+        rewriteRun(spec -> spec.recipe(new EJBRemoteToRest(targetDirectory.toString(), null, true, null, null, null, null))
+                        .dataTable(EndpointInventory.Row.class, rows -> assertThat(rows).extracting(EndpointInventory.Row::getRemoteInterface)
+                                .containsExactly("org.refactor.eap6.svc.ejb.IPlantService")),
+                java(remoteInterface("IAnimalService", "String getAnimals();")),
+                java(remoteInterface("IPlantService", "String getPlants(String name, Date referenceDate);")),
+                yaml(animalContent, sourceSpecs -> sourceSpecs.path(animalContract).noTrim()),
+                yaml(plantContent, changedPlantContent, sourceSpecs -> sourceSpecs.path(plantContract).noTrim()),
+                properties(firstManifest.get(), sourceSpecs -> sourceSpecs.path(manifestFile).noTrim().after(actual -> {
+                    secondManifest.set(actual);
+                    return actual;
+                }))
+        );
+        Properties secondRun = fingerprints(secondManifest.get());
+        assertThat(secondRun.stringPropertyNames()).containsExactlyInAnyOrder("org.refactor.eap6.svc.ejb.IAnimalService",
+                "org.refactor.eap6.svc.ejb.IPlantService");
+        assertThat(secondRun.getProperty("org.refactor.eap6.svc.ejb.IAnimalService")).isEqualTo(firstRun.getProperty("org.refactor.eap6.svc.ejb.IAnimalService"));
+        assertThat(secondRun.getProperty("org.refactor.eap6.svc.ejb.IPlantService")).isNotEqualTo(firstRun.getProperty("org.refactor.eap6.svc.ejb.IPlantService"));
+    }
+
+    @Test
+    public void shouldRebuildContractWhenAClasspathOnlyDtoChanges(@TempDir Path targetDirectory) throws IOException {
+        Path invoiceContract = targetDirectory.resolve("IInvoiceService.yaml");
+        Path manifestFile = targetDirectory.resolve(ContractManifest.FILE_NAME);
+        String invoiceService = """
+                package org.refactor.eap6.svc.ejb;
+
+                import javax.ejb.Remote;
+                import org.refactor.eap6.ext.Invoice;
+
+                @Remote
+                public interface IInvoiceService {
+
+                    Invoice getInvoice(String number);
+                }
+                """;
+        AtomicReference<String> firstContract = new AtomicReference<>();
+        AtomicReference<String> firstManifest = new AtomicReference<>();
+        AtomicReference<String> secondContract = new AtomicReference<>();
+        AtomicReference<String> secondManifest = new AtomicReference<>();
+
+        //Invoice n'est pas parmi les sources : seulement sur le classpath du parser
+        rewriteRun(spec -> spec.recipe(new EJBRemoteToRest(targetDirectory.toString(), null, true, null, null, true, null))
+                        .parser(JavaParser.fromJavaVersion().classpath("jboss-interceptors-api_1.1_spec", "javax.transaction-api").dependsOn("""
+                                package org.refactor.eap6.ext;
+                                public class Invoice {
+                                    private String number;
+                                }
+                                """)),
+                java(invoiceService),
+                yaml(null, sourceSpecs -> sourceSpecs.path(invoiceContract).noTrim().after(actual -> {
+                    firstContract.set(actual);
+                    return actual;
+                })),
+                properties(null, sourceSpecs -> sourceSpecs.path(manifestFile).noTrim().after(actual -> {
+                    firstManifest.set(actual);
+                    return actual;
+                }))
+        );
+        rewriteRun(spec -> spec.recipe(new EJBRemoteToRest(targetDirectory.toString(), null, true, null, null, true, null))
+                        .parser(JavaParser.fromJavaVersion().classpath("jboss-interceptors-api_1.1_spec", "javax.transaction-api").dependsOn("""
+                                package org.refactor.eap6.ext;
+                                public class Invoice {
+                                    private String number;
+                                    private Double amount;
+                                }
+                                """)),
+                java(invoiceService),
+                yaml(firstContract.get(), sourceSpecs -> sourceSpecs.path(invoiceContract).noTrim().after(actual -> {
+                    secondContract.set(actual);
+                    return actual;
+                })),
+                properties(firstManifest.get(), sourceSpecs -> sourceSpecs.path(manifestFile).noTrim().after(actual -> {
+                    secondManifest.set(actual);
+                    return actual;
+                }))
+        );
+        assertThat(firstContract.get()).doesNotContain("amount");
+        assertThat(secondContract.get()).contains("amount");
+        assertThat(fingerprints(secondManifest.get()).getProperty("org.refactor.eap6.svc.ejb.IInvoiceService"))
+                .isNotEqualTo(fingerprints(firstManifest.get()).getProperty("org.refactor.eap6.svc.ejb.IInvoiceService"));
+    }
+
+    private static String remoteInterface(String name, String method) {
+        return """
+                package org.refactor.eap6.svc.ejb;
+
+                import java.util.Date;
+                import javax.ejb.Remote;
+
+                @Remote
+                public interface %s {
+
+                    %s
+                }
+                """.formatted(name, method);
+    }
+
+    private static String renamed(String contract, String interfaceName, String methodName, String operationId) {
+        return contract.replace("IAnimalService", interfaceName).replace("getAnimals", methodName).replace("get-animals", operationId);
+    }
+
+    /**
+     * @return the contract read as maps and lists, whatever its format and the order of its keys
+     */
+    private static Object load(String contract) {
+        return new Yaml().load(contract);
+    }
+
+    private static Properties fingerprints(String manifest) throws IOException {
+        Properties fingerprints = new Properties();
+        fingerprints.load(new StringReader(manifest));
+        return fingerprints;
+    }
+
+    private String animalServiceWithInheritedObjectResponse = """
+            package org.refactor.eap6.svc.ejb;
+
+            import java.util.Date;
+            import javax.ejb.Remote;
+            import org.refactor.eap6.java.dto.*;
+
+            @Remote
+            public interface IAnimalService {
+
+                Animal getAnimals(String name, Date referenceDate);
+            }
+            """;
+
     private String expectedContractWithQueryParametersAndInheritedObjectResponse = """
 
         components:\s
@@ -326,6 +553,105 @@ class EJBRemoteToRestBasicMethodTest implements RewriteTest {
           name: IAnimalService
             """;
 
+    private String expectedContractWithTwoOperationsReturningInheritedObject = """
+
+        components:\s
+          schemas:
+            Animal:\s
+              description: org.refactor.eap6.java.dto.Animal
+              discriminator:\s
+                propertyName: type_animal
+              properties:
+                name:\s
+                  type: string
+                type_animal:\s
+                  type: string
+              required:
+              - type_animal
+              type: object
+            Bird:\s
+              allOf:
+              -\s
+                $ref: '#/components/schemas/Animal'
+              -\s
+                description: org.refactor.eap6.java.dto.Bird
+                properties:
+                  name:\s
+                    type: string
+                  ailes:\s
+                    format: int32
+                    type: integer
+                type: object
+            Dog:\s
+              allOf:
+              -\s
+                $ref: '#/components/schemas/Animal'
+              -\s
+                description: org.refactor.eap6.java.dto.Dog
+                properties:
+                  pattes:\s
+                    format: int32
+                    type: integer
+                  name:\s
+                    type: string
+                type: object
+        info:\s
+          description: IAnimalService OpenAPI definition
+          title: IAnimalService
+          version: 1.0.0
+        openapi: 3.0.3
+        paths:
+          /IAnimalService/getAnimals:\s
+            post:\s
+              description: get-animals
+              operationId: get-animals
+              parameters:
+              -\s
+                in: query
+                name: name
+                schema:\s
+                  type: string
+              -\s
+                in: query
+                name: referenceDate
+                schema:\s
+                  format: date
+                  type: string
+              responses:
+                '200':\s
+                  content:
+                    application/json:\s
+                      schema:\s
+                        $ref: '#/components/schemas/Animal'
+                  description: OK
+              summary: get-animals
+              tags:
+              - IAnimalService
+          /IAnimalService/findAnimal:\s
+            post:\s
+              description: find-animal
+              operationId: find-animal
+              parameters:
+              -\s
+                in: query
+                name: name
+                schema:\s
+                  type: string
+              responses:
+                '200':\s
+                  content:
+                    application/json:\s
+                      schema:\s
+                        $ref: '#/components/schemas/Animal'
+                  description: OK
+              summary: find-animal
+              tags:
+              - IAnimalService
+        tags:
+        -\s
+          name: IAnimalService
+            """;
+
     private String expectedContractWithEmptyParametersAndStringResponse = """
 
             components:  {}
@@ -1,6 +1,5 @@
 package org.refactor.eap6.java.ejb;
 
-import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Test;
 import org.openrewrite.java.JavaParser;
 import org.openrewrite.test.RecipeSpec;
@@ -8,11 +7,9 @@ import org.openrewrite.test.RewriteTest;
 import org.openrewrite.test.SourceSpecs;
 import org.openrewrite.test.TypeValidation;
 
-import java.io.File;
-import java.io.IOException;
-
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.openrewrite.java.Assertions.java;
+import static org.openrewrite.yaml.Assertions.yaml;
 
 class EJBRemoteToRestComplexMethodTest implements RewriteTest {
 
@@ -56,7 +53,7 @@ class EJBRemoteToRestComplexMethodTest implements RewriteTest {
     }
 
     @Test
-    public void shouldProduceAPIWithTwoMethods() throws IOException {
+    public void shouldProduceAPIWithTwoMethods() {
         rewriteRun(classCat, classCountry,
                 java("""
                         package org.refactor.eap6.svc.ejb;
@@ -73,13 +70,80 @@ class EJBRemoteToRestComplexMethodTest implements RewriteTest {
                             
                             Cat getAnimals(String name, Country country);
                         }
-                        """, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml"))
+                        """),
+                yaml(null, expectedContractWithTwoMethods, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim())
+        );
+    }
+
+    @Test
+    public void shouldProduceDistinctOperationsForThreeOverloads() {
+        rewriteRun(spec -> spec.dataTable(EndpointInventory.Row.class, rows -> assertThat(rows).containsExactly(
+                        new EndpointInventory.Row("org.refactor.eap6.svc.ejb.IAnimalService", "/IAnimalService/getAnimals", "POST", "get-animals",
+                                0, "", "string", false),
+                        new EndpointInventory.Row("org.refactor.eap6.svc.ejb.IAnimalService", "/IAnimalService/getAnimals1", "POST", "get-animals1",
+                                1, "", "string", false),
+                        new EndpointInventory.Row("org.refactor.eap6.svc.ejb.IAnimalService", "/IAnimalService/getAnimals2", "POST", "get-animals2",
+                                2, "", "string", false))),
+                java("""
+                        package org.refactor.eap6.svc.ejb;
+
+                        import java.util.Date;
+                        import javax.ejb.Remote;
+
+                        @Remote
+                        public interface IAnimalService {
+
+                            String getAnimals();
+
+                            String getAnimals(String name);
+
+                            String getAnimals(String name, Date referenceDate);
+                        }
+                        """),
+                yaml(null, expectedContractWithThreeOverloads, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim())
+        );
+    }
+
+    @Test
+    public void shouldMergeContractsRenamingClashingComponentsAndOperations() {
+        rewriteRun(spec -> spec.recipe(new EJBRemoteToRest(null, null, null, "zoo", null, null, null)),
+                classCat, classCountry,
+                java("""
+                        package org.refactor.eap6.java.dto.zoo;
+                        public class Cat {
+                        }
+                        """),
+                java("""
+                        package org.refactor.eap6.svc.ejb;
+
+                        import javax.ejb.Remote;
+                        import org.refactor.eap6.java.dto.*;
+
+                        @Remote
+                        public interface IAnimalService {
+
+                            Cat getAnimals(Country country);
+                        }
+                        """),
+                java("""
+                        package org.refactor.eap6.svc.ejb;
+
+                        import javax.ejb.Remote;
+                        import org.refactor.eap6.java.dto.Country;
+                        import org.refactor.eap6.java.dto.zoo.Cat;
+
+                        @Remote
+                        public interface IZooService {
+
+                            Cat getAnimals(Country country);
+                        }
+                        """),
+                yaml(null, expectedMergedContract, sourceSpecs -> sourceSpecs.path("target/zoo.yaml").noTrim())
         );
-        assertThat(FileUtils.readFileToString(new File("target/IAnimalService.yaml"))).isEqualTo(expectedContractWithTwoMethods);
     }
 
     @Test
-    public void shouldProduceAPIWithWrapperRequestBodyAndListOfStringResponse() throws IOException {
+    public void shouldProduceAPIWithWrapperRequestBodyAndListOfStringResponse() {
         rewriteRun(classCat, classCountry,
                 java("""
                         package org.refactor.eap6.svc.ejb;
@@ -94,13 +158,13 @@ class EJBRemoteToRestComplexMethodTest implements RewriteTest {
 
                             List<String> getAnimals(Cat cat, Country country);
                         }
-                        """, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml"))
+                        """),
+                yaml(null, expectedContractWithWrapperRequestbodyAndListOfStringResponse, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim())
         );
-        assertThat(FileUtils.readFileToString(new File("target/IAnimalService.yaml"))).isEqualTo(expectedContractWithWrapperRequestbodyAndListOfStringResponse);
     }
 
     @Test
-    public void shouldProduceAPIWithWrapperRequestBodyAndMapResponse() throws IOException {
+    public void shouldProduceAPIWithWrapperRequestBodyAndMapResponse() {
         rewriteRun(classCat, classCountry,
                 java("""
                         package org.refactor.eap6.svc.ejb;
@@ -115,13 +179,13 @@ class EJBRemoteToRestComplexMethodTest implements RewriteTest {
 
                             Map<String, Cat> getAnimals(Cat cat, Country country);
                         }
-                        """, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml"))
+                        """),
+                yaml(null, expectedContractWithWrapperRequestBodyAndMapResponse, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim())
         );
-        assertThat(FileUtils.readFileToString(new File("target/IAnimalService.yaml"))).isEqualTo(expectedContractWithWrapperRequestBodyAndMapResponse);
     }
 
     @Test
-    public void shouldProduceAPIWitRequestBodyAndWrapperResponse() throws IOException {
+    public void shouldProduceAPIWitRequestBodyAndWrapperResponse() {
         rewriteRun(classCat, classCountry,
                 java("""
                         package org.refactor.eap6.svc.ejb;
@@ -136,13 +200,13 @@ class EJBRemoteToRestComplexMethodTest implements RewriteTest {
 
                             Map<Country, Cat> getAnimals(Cat cat);
                         }
-                        """, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml"))
+                        """),
+                yaml(null, expectedContractWithRequestBodyAndWrapperResponse, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim())
         );
-        assertThat(FileUtils.readFileToString(new File("target/IAnimalService.yaml"))).isEqualTo(expectedContractWithRequestBodyAndWrapperResponse);
     }
 
     @Test
-    public void shouldProduceAPIWithWrapperRequestBodyAndWrapperResponse() throws IOException {
+    public void shouldProduceAPIWithWrapperRequestBodyAndWrapperResponse() {
         rewriteRun(classCat, classCountry,
                 java("""
                         package org.refactor.eap6.svc.ejb;
@@ -157,13 +221,35 @@ class EJBRemoteToRestComplexMethodTest implements RewriteTest {
 
                             Map<Long, Map<String, Cat>> getAnimals(Set<Cat> cats, Country country);
                         }
-                        """, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml"))
+                        """),
+                yaml(null, expectedContractWithWrapperRequestBodyAndWrapperResponse, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim())
         );
-        assertThat(FileUtils.readFileToString(new File("target/IAnimalService.yaml"))).isEqualTo(expectedContractWithWrapperRequestBodyAndWrapperResponse);
     }
 
     @Test
-    public void shouldProduceAPIWithWrapperRequestBodyAndMapStringResponse() throws IOException {
+    public void shouldProduceAPIWithWrapperRequestBodyAndNativeMapResponse() {
+        rewriteRun(spec -> spec.recipe(new EJBRemoteToRest(null, null, null, null, null, null, true)),
+                classCat, classCountry,
+                java("""
+                        package org.refactor.eap6.svc.ejb;
+
+                        import java.util.Date;
+                        import javax.ejb.Remote;
+                        import java.util.Set;
+                        import org.refactor.eap6.java.dto.*;
+
+                        @Remote
+                        public interface IAnimalService {
+
+                            Map<Long, Map<String, Cat>> getAnimals(Set<Cat> cats, Country country);
+                        }
+                        """),
+                yaml(null, expectedContractWithWrapperRequestBodyAndNativeMapResponse, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim())
+        );
+    }
+
+    @Test
+    public void shouldProduceAPIWithWrapperRequestBodyAndMapStringResponse() {
         rewriteRun(classCat, classCountry,
                 java("""
                         package org.refactor.eap6.svc.ejb;
@@ -178,13 +264,13 @@ class EJBRemoteToRestComplexMethodTest implements RewriteTest {
 
                             Map<String, String> getAnimals(Cat cat, List<Country> countries);
                         }
-                        """, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml"))
+                        """),
+                yaml(null, expectedContractWithWrapperRequestBodyAndMapStringResponse, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim())
         );
-        assertThat(FileUtils.readFileToString(new File("target/IAnimalService.yaml"))).isEqualTo(expectedContractWithWrapperRequestBodyAndMapStringResponse);
     }
 
     @Test
-    public void shouldProduceAPIWithMultiListResponse() throws IOException {
+    public void shouldProduceAPIWithMultiListResponse() {
         rewriteRun(classCat, classCountry,
                 java("""
                         package org.refactor.eap6.svc.ejb;
@@ -199,13 +285,13 @@ class EJBRemoteToRestComplexMethodTest implements RewriteTest {
 
                             List<List<Cat>> getAnimals(String cat, String country);
                         }
-                        """, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml"))
+                        """),
+                yaml(null, expectedContractWithMultiListResponse, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim())
         );
-        assertThat(FileUtils.readFileToString(new File("target/IAnimalService.yaml"))).isEqualTo(expectedContractWithMultiListResponse);
     }
 
     @Test
-    public void shouldProduceAPIWithMultiListAndMapResponse() throws IOException {
+    public void shouldProduceAPIWithMultiListAndMapResponse() {
         rewriteRun(classCat, classCountry,
                 java("""
                         package org.refactor.eap6.svc.ejb;
@@ -220,13 +306,13 @@ class EJBRemoteToRestComplexMethodTest implements RewriteTest {
 
                             List<List<Map<String, List<Cat>>>> getAnimals(String cat, String country);
                         }
-                        """, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml"))
+                        """),
+                yaml(null, expectedContractWithMultiListAndMapResponse, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim())
         );
-        assertThat(FileUtils.readFileToString(new File("target/IAnimalService.yaml"))).isEqualTo(expectedContractWithMultiListAndMapResponse);
     }
 
     @Test
-    public void shouldProduceAPIWithRequestBodyAndObjectResponse() throws IOException {
+    public void shouldProduceAPIWithRequestBodyAndObjectResponse() {
         rewriteRun(classCountry, classAnimalComposite, classDog,
                 java("""
                         package org.refactor.eap6.svc.ejb;
@@ -241,9 +327,9 @@ class EJBRemoteToRestComplexMethodTest implements RewriteTest {
 
                             AnimalComposite getAnimals(Country country);
                         }
-                        """, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml"))
+                        """),
+                yaml(null, expectedWithRequestBodyAndObjectResponse, sourceSpecs -> sourceSpecs.path("target/IAnimalService.yaml").noTrim())
         );
-        assertThat(FileUtils.readFileToString(new File("target/IAnimalService.yaml"))).isEqualTo(expectedWithRequestBodyAndObjectResponse);
     }
 
     private String expectedContractWithRequestBodyAndWrapperResponse = """
@@ -363,6 +449,163 @@ class EJBRemoteToRestComplexMethodTest implements RewriteTest {
               name: IAnimalService
             """;
 
+    private String expectedContractWithThreeOverloads = """
+
+            components:  {}
+            info:\s
+              description: IAnimalService OpenAPI definition
+              title: IAnimalService
+              version: 1.0.0
+            openapi: 3.0.3
+            paths:
+              /IAnimalService/getAnimals:\s
+                post:\s
+                  description: get-animals
+                  operationId: get-animals
+                  responses:
+                    '200':\s
+                      content:
+                        application/json:\s
+                          schema:\s
+                            type: string
+                      description: OK
+                  summary: get-animals
+                  tags:
+                  - IAnimalService
+              /IAnimalService/getAnimals1:\s
+                post:\s
+                  description: get-animals1
+                  operationId: get-animals1
+                  parameters:
+                  -\s
+                    in: query
+                    name: name
+                    schema:\s
+                      type: string
+                  responses:
+                    '200':\s
+                      content:
+                        application/json:\s
+                          schema:\s
+                            type: string
+                      description: OK
+                  summary: get-animals1
+                  tags:
+                  - IAnimalService
+              /IAnimalService/getAnimals2:\s
+                post:\s
+                  description: get-animals2
+                  operationId: get-animals2
+                  parameters:
+                  -\s
+                    in: query
+                    name: name
+                    schema:\s
+                      type: string
+                  -\s
+                    in: query
+                    name: referenceDate
+                    schema:\s
+                      format: date
+                      type: string
+                  responses:
+                    '200':\s
+                      content:
+                        application/json:\s
+                          schema:\s
+                            type: string
+                      description: OK
+                  summary: get-animals2
+                  tags:
+                  - IAnimalService
+            tags:
+            -\s
+              name: IAnimalService
+            """;
+
+    private String expectedMergedContract = """
+
+            components:\s
+              schemas:
+                Cat:\s
+                  description: org.refactor.eap6.java.dto.Cat
+                  properties:
+                    pattes:\s
+                      format: int32
+                      type: integer
+                    name:\s
+                      type: string
+                  type: object
+                Cat2:\s
+                  description: org.refactor.eap6.java.dto.zoo.Cat
+                  properties:
+                    enclosure:\s
+                      type: string
+                    name:\s
+                      type: string
+                  type: object
+                Country:\s
+                  description: org.refactor.eap6.java.dto.Country
+                  properties:
+                    avarageTemperature:\s
+                      format: int32
+                      type: integer
+                    name:\s
+                      type: string
+                  type: object
+            info:\s
+              description: zoo OpenAPI definition
+              title: zoo
+              version: 1.0.0
+            openapi: 3.0.3
+            paths:
+              /IAnimalService/getAnimals:\s
+                post:\s
+                  description: get-animals
+                  operationId: get-animals
+                  requestBody:\s
+                    content:
+                      application/json:\s
+                        schema:\s
+                          $ref: '#/components/schemas/Country'
+                    required: true
+                  responses:
+                    '200':\s
+                      content:
+                        application/json:\s
+                          schema:\s
+                            $ref: '#/components/schemas/Cat'
+                      description: OK
+                  summary: get-animals
+                  tags:
+                  - IAnimalService
+              /IZooService/getAnimals1:\s
+                post:\s
+                  description: get-animals1
+                  operationId: get-animals1
+                  requestBody:\s
+                    content:
+                      application/json:\s
+                        schema:\s
+                          $ref: '#/components/schemas/Country'
+                    required: true
+                  responses:
+                    '200':\s
+                      content:
+                        application/json:\s
+                          schema:\s
+                            $ref: '#/components/schemas/Cat2'
+                      description: OK
+                  summary: get-animals1
+                  tags:
+                  - IZooService
+            tags:
+            -\s
+              name: IAnimalService
+            -\s
+              name: IZooService
+            """;
+
     private String expectedContractWithTwoMethods = """
 
             components:\s
@@ -522,6 +765,74 @@ class EJBRemoteToRestComplexMethodTest implements RewriteTest {
               name: IAnimalService
             """;
 
+    private String expectedContractWithWrapperRequestBodyAndNativeMapResponse = """
+
+            components:\s
+              schemas:
+                Cat:\s
+                  description: org.refactor.eap6.java.dto.Cat
+                  properties:
+                    pattes:\s
+                      format: int32
+                      type: integer
+                    name:\s
+                      type: string
+                  type: object
+                Country:\s
+                  description: org.refactor.eap6.java.dto.Country
+                  properties:
+                    avarageTemperature:\s
+                      format: int32
+                      type: integer
+                    name:\s
+                      type: string
+                  type: object
+                GetAnimalsRequest:\s
+                  description: Wrapper for [Country, Set]
+                  properties:
+                    country:\s
+                      $ref: '#/components/schemas/Country'
+                    cats:\s
+                      items:\s
+                        $ref: '#/components/schemas/Cat'
+                      type: array
+                      uniqueItems: true
+                  type: object
+            info:\s
+              description: IAnimalService OpenAPI definition
+              title: IAnimalService
+              version: 1.0.0
+            openapi: 3.0.3
+            paths:
+              /IAnimalService/getAnimals:\s
+                post:\s
+                  description: get-animals
+                  operationId: get-animals
+                  requestBody:\s
+                    content:
+                      application/json:\s
+                        schema:\s
+                          $ref: '#/components/schemas/GetAnimalsRequest'
+                    required: true
+                  responses:
+                    '200':\s
+                      content:
+                        application/json:\s
+                          schema:\s
+                            additionalProperties:\s
+                              additionalProperties:\s
+                                $ref: '#/components/schemas/Cat'
+                              type: object
+                            type: object
+                      description: OK
+                  summary: get-animals
+                  tags:
+                  - IAnimalService
+            tags:
+            -\s
+              name: IAnimalService
+            """;
+
     private String expectedContractWithWrapperRequestBodyAndMapStringResponse = """
 
             components:\s
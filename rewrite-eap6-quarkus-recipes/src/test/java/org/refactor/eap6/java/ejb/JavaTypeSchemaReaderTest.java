@@ -0,0 +1,81 @@
+package org.refactor.eap6.java.ejb;
+
+import io.swagger.v3.core.converter.ModelConverters;
+import org.eclipse.microprofile.openapi.models.media.Schema;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.tree.J;
+import org.refactor.eap6.java.dto.parcel.Parcel;
+import org.refactor.eap6.yaml.util.SchemaConverter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JavaTypeSchemaReaderTest {
+
+    private static final Path DTO_SOURCES = Paths.get("src/test/java/org/refactor/eap6/java/dto");
+
+    /**
+     * Parcel extends Box&lt;Country&gt;, renames a field with {@code @JsonProperty} and hides another with {@code @JsonIgnore}
+     */
+    @Test
+    public void shouldReadTheSameModelsAsModelConverters() throws IOException {
+        Map<String, Schema> fromSources = JavaTypeSchemaReader.read(Parcel.class.getName(), null, indexParcelSources());
+        Map<String, Schema> fromClass = new TreeMap<>();
+        ModelConverters.getInstance().readAll(Parcel.class).forEach((name, schema) -> fromClass.put(name, SchemaConverter.convert(schema)));
+
+        assertThat(shape(fromSources)).isEqualTo(shape(fromClass));
+        assertThat(shape(fromSources).get("Parcel"))
+                .containsEntry("content", "#/components/schemas/Country")
+                .containsEntry("weight_kg", "number/double")
+                .doesNotContainKeys("weight", "trackingCode");
+    }
+
+    @Test
+    public void shouldDescribeEachModelByItsOwnClass() throws IOException {
+        Map<String, Schema> fromSources = JavaTypeSchemaReader.read(Parcel.class.getName(), null, indexParcelSources());
+
+        assertThat(fromSources.get("Parcel").getDescription()).isEqualTo("org.refactor.eap6.java.dto.parcel.Parcel");
+        assertThat(fromSources.get("Country").getDescription()).isEqualTo("org.refactor.eap6.java.dto.Country");
+    }
+
+    private static TypeIndex indexParcelSources() throws IOException {
+        TypeIndex typeIndex = new TypeIndex();
+        JavaParser.fromJavaVersion().classpath("jackson-annotations").build()
+                .parse(new InMemoryExecutionContext(Throwable::printStackTrace),
+                        Files.readString(DTO_SOURCES.resolve("Country.java")),
+                        Files.readString(DTO_SOURCES.resolve("parcel/Box.java")),
+                        Files.readString(DTO_SOURCES.resolve("parcel/Parcel.java")))
+                .forEach(sourceFile -> typeIndex.index((J.CompilationUnit) sourceFile));
+        return typeIndex;
+    }
+
+    /**
+     * @return the type, format, reference and items of the properties of each model, by property name
+     */
+    private static Map<String, Map<String, String>> shape(Map<String, Schema> models) {
+        Map<String, Map<String, String>> shape = new TreeMap<>();
+        models.forEach((name, model) -> {
+            Map<String, String> properties = new TreeMap<>();
+            model.getProperties().forEach((propertyName, property) -> properties.put(propertyName, shape(property)));
+            shape.put(name, properties);
+        });
+        return shape;
+    }
+
+    private static String shape(Schema schema) {
+        if (schema.getRef() != null) {
+            return schema.getRef();
+        }
+        return schema.getType()
+                + (schema.getFormat() == null ? "" : "/" + schema.getFormat())
+                + (schema.getItems() == null ? "" : "<" + shape(schema.getItems()) + ">");
+    }
+}
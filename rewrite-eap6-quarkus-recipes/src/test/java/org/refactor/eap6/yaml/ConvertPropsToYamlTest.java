@@ -27,4 +27,126 @@ class ConvertPropsToYamlTest implements RewriteTest {
         );
     }
 
+    @Test
+    void keepOrderAndCommentsOfPropertiesTest() {
+        rewriteRun(
+                properties("""
+                                # Application
+                                quarkus.application.name=shop
+                                # HTTP
+                                quarkus.http.port=8080
+                                quarkus.datasource.username=sa
+                                """,
+                        spec -> spec.path("src/main/resources/application.properties")),
+                yaml("""
+                                """,
+                        """
+                                # Application
+                                quarkus:
+                                  application:
+                                    name: shop
+                                  # HTTP
+                                  http:
+                                    port: 8080
+                                  datasource:
+                                    username: sa
+                                """,
+                        spec -> spec.path("src/main/resources/application.yaml"))
+        );
+    }
+
+    @Test
+    void keepValueOfKeyPrefixingOtherKeysTest() {
+        rewriteRun(
+                properties("""
+                                a=1
+                                a.b=2
+                                """,
+                        spec -> spec.path("src/main/resources/application.properties")),
+                yaml("""
+                                """,
+                        """
+                                a: 1
+                                a.b: 2
+                                """,
+                        spec -> spec.path("src/main/resources/application.yaml"))
+        );
+    }
+
+    @Test
+    void keepValueOfKeyPrefixingPreviousKeysTest() {
+        rewriteRun(
+                properties("""
+                                a.b=2
+                                a=1
+                                """,
+                        spec -> spec.path("src/main/resources/application.properties")),
+                yaml("""
+                                """,
+                        """
+                                a: 1
+                                a.b: 2
+                                """,
+                        spec -> spec.path("src/main/resources/application.yaml"))
+        );
+    }
+
+    @Test
+    void orderIndexedPropertiesByIndexTest() {
+        rewriteRun(
+                properties("""
+                                r[11]=v11
+                                r[10]=v10
+                                r[2]=v2
+                                r[0]=v0
+                                r[1]=v1
+                                r[3]=v3
+                                r[4]=v4
+                                r[5]=v5
+                                r[6]=v6
+                                r[7]=v7
+                                r[8]=v8
+                                r[9]=v9
+                                """,
+                        spec -> spec.path("src/main/resources/application.properties")),
+                yaml("""
+                                """,
+                        """
+                                r:
+                                  - v0
+                                  - v1
+                                  - v2
+                                  - v3
+                                  - v4
+                                  - v5
+                                  - v6
+                                  - v7
+                                  - v8
+                                  - v9
+                                  - v10
+                                  - v11
+                                """,
+                        spec -> spec.path("src/main/resources/application.yaml"))
+        );
+    }
+
+    @Test
+    void padMissingIndexesWithNullTest() {
+        rewriteRun(
+                properties("""
+                                r[2]=v2
+                                """,
+                        spec -> spec.path("src/main/resources/application.properties")),
+                yaml("""
+                                """,
+                        """
+                                r:
+                                  - null
+                                  - null
+                                  - v2
+                                """,
+                        spec -> spec.path("src/main/resources/application.yaml"))
+        );
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package org.refactor.eap6.yaml.propstoyaml;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Props2YAMLTest {
+
+    @Test
+    public void shouldUnescapeKeysAndValues() {
+        String yaml = Props2YAML.fromContent("""
+                city=Orl\\u00e9ans
+                url\\:port=localhost\\:8080
+                key\\=name=v\\=1
+                hosts=alpha,\\
+                      beta,\\
+                      gamma
+                """).convert();
+
+        assertThat(yaml).isEqualTo("""
+                city: Orléans
+                url:port: localhost:8080
+                key=name: v=1
+                hosts: alpha,beta,gamma
+                """);
+    }
+
+    @Test
+    public void shouldContinueLinesAsPropertiesDoes() throws IOException {
+        //Continuation en CRLF, sur une ligne sans séparateur, et en fin de fichier
+        String content = "hosts=alpha,\\\r\n      beta,\\\n\tgamma\r\nbare \\\n   value\nlast=end\\\n";
+        Properties expected = new Properties();
+        expected.load(new StringReader(content));
+
+        assertThat(Props2YAML.fromContent(content).convert()).isEqualTo("""
+                hosts: %s
+                bare: %s
+                last: %s
+                """.formatted(expected.getProperty("hosts"), expected.getProperty("bare"), expected.getProperty("last")));
+    }
+
+    @Test
+    public void shouldKeepKeysWithoutValue() {
+        String yaml = Props2YAML.fromContent("""
+                quarkus.datasource.password=
+                quarkus.log.console
+                quarkus.http.port=8080
+                """).convert();
+
+        assertThat(yaml).isEqualTo("""
+                quarkus:
+                    datasource:
+                        password: ''
+                    log:
+                        console: ''
+                    http:
+                        port: 8080
+                """);
+    }
+
+    @Test
+    public void shouldKeepTrailingWhitespaceOfValues() {
+        String yaml = Props2YAML.fromContent("greeting=hello  \nname=world\t\nlast=end ").convert();
+
+        assertThat(yaml).isEqualTo("""
+                greeting: 'hello  '
+                name: "world\\t"
+                last: 'end '
+                """);
+    }
+
+    @Test
+    public void shouldReadFileInIso88591(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("application.properties");
+        Files.write(file, "city=Orléans\n".getBytes(StandardCharsets.ISO_8859_1));
+
+        assertThat(Props2YAML.fromFile(file).convert()).isEqualTo("""
+                city: Orléans
+                """);
+    }
+
+    @Test
+    public void shouldSortKeysOnRequest() {
+        String yaml = Props2YAML.fromContent("""
+                quarkus.http.port=8080
+                app.name=shop
+                quarkus.application.name=shop
+                """).sortKeys(true).convert();
+
+        assertThat(yaml).isEqualTo("""
+                app:
+                    name: shop
+                quarkus:
+                    application:
+                        name: shop
+                    http:
+                        port: 8080
+                """);
+    }
+}